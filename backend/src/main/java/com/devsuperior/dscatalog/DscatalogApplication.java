@@ -2,8 +2,10 @@ package com.devsuperior.dscatalog;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 
-@SpringBootApplication
+// O R2DBC e usado so pelas leituras reativas; um ConnectionFactory no contexto desligaria o DataSource JDBC
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class DscatalogApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,100 @@
+package com.devsuperior.dscatalog.components;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+@Component
+@Profile("loadtest")
+public class CatalogDataGenerator implements CommandLineRunner {
+
+	private static Logger logger = LoggerFactory.getLogger(CatalogDataGenerator.class);
+
+	// Mesmo hash do import.sql (senha 123456)
+	private static final String PASSWORD_HASH = "$2a$10$eACCYoNOHEqXve8aIWT8Nu3PkMXWBaOxJ9aORUYzfMQCbVBIhZ8tG";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Value("${loadtest.categories:50}")
+	private long categories;
+
+	@Value("${loadtest.products:1000000}")
+	private long products;
+
+	@Value("${loadtest.users:1000}")
+	private long users;
+
+	@Value("${loadtest.categories-per-product:2}")
+	private int categoriesPerProduct;
+
+	@Override
+	public void run(String... args) throws Exception {
+		// Em bancos persistentes (PostgreSQL) cada reinicio duplicaria a massa de dados
+		long existing = count("tb_product");
+		if (existing >= products) {
+			logger.info("Load test dataset already present: " + existing + " products, skipping generation");
+			return;
+		}
+
+		long start = System.currentTimeMillis();
+		String range = rangeFunction();
+
+		long firstCategory = maxId("tb_category") + 1;
+		jdbcTemplate.update("INSERT INTO tb_category (name, created_At, update_At) "
+				+ "SELECT 'Category ' || r.x, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP FROM " + range, categories);
+
+		long firstProduct = maxId("tb_product") + 1;
+		jdbcTemplate.update("INSERT INTO tb_product (name, price, date, description, img_url, updated_at) "
+				+ "SELECT 'Product ' || r.x, MOD(r.x * 7919, 500000) / 100.0 + 1, CURRENT_TIMESTAMP, "
+				+ "'Generated product ' || r.x, 'https://img.com/' || r.x || '.jpg', CURRENT_TIMESTAMP FROM " + range, products);
+
+		for (int i = 0; i < categoriesPerProduct && i < categories; i++) {
+			jdbcTemplate.update("INSERT INTO tb_product_category (product_id, category_id) "
+					+ "SELECT p.id, ? + MOD(p.id + ?, ?) FROM tb_product p WHERE p.id >= ?",
+					firstCategory, i, categories, firstProduct);
+		}
+
+		long firstUser = maxId("tb_user") + 1;
+		jdbcTemplate.update("INSERT INTO tb_user (first_name, last_name, email, password) "
+				+ "SELECT 'User', 'Load ' || r.x, 'user' || r.x || '@loadtest.com', '" + PASSWORD_HASH + "' FROM " + range, users);
+		jdbcTemplate.update("INSERT INTO tb_user_role (user_id, role_id) "
+				+ "SELECT u.id, 1 FROM tb_user u WHERE u.id >= ?", firstUser);
+
+		logger.info("Load test dataset generated: " + categories + " categories, " + products + " products, "
+				+ users + " users in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	private long count(String table) {
+		Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+		return count == null ? 0L : count;
+	}
+
+	private long maxId(String table) {
+		Long max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Long.class);
+		return max == null ? 0L : max;
+	}
+
+	private String rangeFunction() throws SQLException {
+		try (Connection conn = dataSource.getConnection()) {
+			String product = conn.getMetaData().getDatabaseProductName();
+			if ("PostgreSQL".equalsIgnoreCase(product)) {
+				return "generate_series(1, ?) AS r(x)";
+			}
+			return "SYSTEM_RANGE(1, ?) r";
+		}
+	}
+}
@@ -0,0 +1,104 @@
+package com.devsuperior.dscatalog.components;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Execucao de treino do build (mvn -Pfaststart package): passa pelas requisicoes mais comuns para que
+ * as classes delas entrem no arquivo CDS e encerra a JVM, que grava o arquivo na saida.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.faststart.training", havingValue = "true")
+public class StartupTrainingRun {
+
+	private static Logger logger = LoggerFactory.getLogger(StartupTrainingRun.class);
+
+	@Autowired
+	private ApplicationContext context;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${security.oauth2.client.client-id}")
+	private String clientId;
+
+	@Value("${security.oauth2.client.client-secret}")
+	private String clientSecret;
+
+	@Value("${catalog.faststart.training-user:alex@gmail.com}")
+	private String username;
+
+	@Value("${catalog.faststart.training-password:123456}")
+	private String password;
+
+	private int port;
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void train() {
+		port = context.getEnvironment().getProperty("local.server.port", Integer.class);
+		int exitCode = 0;
+		try {
+			HttpClient client = HttpClient.newHttpClient();
+			String token = token(client);
+			for (String path : new String[] { "/products", "/products/1", "/products/search?q=pc", "/categories",
+					"/categories/1" }) {
+				send(client, HttpRequest.newBuilder(uri(path)).header("Authorization", "Bearer " + token).GET().build());
+			}
+			logger.info("Startup training run finished");
+		}
+		catch (Exception e) {
+			logger.error("Startup training run failed", e);
+			exitCode = 1;
+		}
+		int code = exitCode;
+		System.exit(SpringApplication.exit(context, () -> code));
+	}
+
+	private String token(HttpClient client) throws Exception {
+		String credentials = Base64.getEncoder()
+				.encodeToString((clientId + ":" + clientSecret).getBytes(StandardCharsets.UTF_8));
+		String form = "grant_type=password&username=" + URLEncoder.encode(username, StandardCharsets.UTF_8)
+				+ "&password=" + URLEncoder.encode(password, StandardCharsets.UTF_8);
+		HttpResponse<String> response = send(client, HttpRequest.newBuilder(uri("/oauth/token"))
+				.header("Authorization", "Basic " + credentials)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build());
+		String token = objectMapper.readTree(response.body()).path("access_token").asText();
+		if (token.isEmpty()) {
+			throw new IllegalStateException("POST /oauth/token returned no access_token");
+		}
+		return token;
+	}
+
+	// So 2xx conta: um 401 ou redirecionamento treinaria o caminho de erro em vez da requisicao real
+	private HttpResponse<String> send(HttpClient client, HttpRequest request) throws Exception {
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() < 200 || response.statusCode() >= 300) {
+			throw new IllegalStateException(request.method() + " " + request.uri() + " returned " + response.statusCode());
+		}
+		return response;
+	}
+
+	private URI uri(String path) {
+		return URI.create("http://localhost:" + port + path);
+	}
+}
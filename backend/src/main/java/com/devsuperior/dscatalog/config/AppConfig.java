@@ -1,18 +1,40 @@
 package com.devsuperior.dscatalog.config;
 
+import java.time.Duration;
+
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
 import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
 
+import com.devsuperior.dscatalog.services.image.HttpImageOrigin;
+import com.devsuperior.dscatalog.services.image.ImageOrigin;
+import com.devsuperior.dscatalog.services.outbox.ChangeBus;
+import com.devsuperior.dscatalog.services.outbox.InMemoryChangeBus;
+
 @Configuration
+@EnableCaching
+@EnableScheduling
 public class AppConfig {
 	
 	@Value("${jwt.secret}")
 	private String jwtSecret;
 	
+	@Value("${catalog.images.origin-timeout-ms:5000}")
+	private long imageOriginTimeoutMs;
+	
+	@Value("${catalog.images.origin-max-bytes:20971520}")
+	private int imageOriginMaxBytes;
+	
+	@Value("${catalog.stream.dispatch-threads:4}")
+	private int streamDispatchThreads;
+	
 	@Bean
 	public BCryptPasswordEncoder passwordEncoder() {
 		return new BCryptPasswordEncoder();
@@ -30,4 +52,29 @@ public class AppConfig {
 		return new JwtTokenStore(accessTokenConverter());
 	}
 
+	// Com um broker, defina catalog.outbox.bus com outro valor e registre o proprio bean ChangeBus
+	@Bean
+	@ConditionalOnProperty(name = "catalog.outbox.bus", havingValue = "in-memory", matchIfMissing = true)
+	public ChangeBus changeBus() {
+		return new InMemoryChangeBus();
+	}
+
+	// Inicializado e encerrado pelo ciclo de vida do contexto (shutdownNow ao fechar)
+	@Bean
+	public ThreadPoolTaskExecutor productStreamExecutor() {
+		ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+		executor.setCorePoolSize(streamDispatchThreads);
+		executor.setMaxPoolSize(streamDispatchThreads);
+		executor.setThreadNamePrefix("product-stream-");
+		executor.setDaemon(true);
+		return executor;
+	}
+
+	// Para outra origem, defina catalog.images.origin com outro valor e registre o proprio bean ImageOrigin
+	@Bean
+	@ConditionalOnProperty(name = "catalog.images.origin", havingValue = "http", matchIfMissing = true)
+	public ImageOrigin imageOrigin() {
+		return new HttpImageOrigin(Duration.ofMillis(imageOriginTimeoutMs), imageOriginMaxBytes);
+	}
+
 }
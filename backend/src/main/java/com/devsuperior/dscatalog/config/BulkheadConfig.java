@@ -0,0 +1,70 @@
+package com.devsuperior.dscatalog.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import com.devsuperior.dscatalog.resources.filters.BulkheadFilter;
+import com.devsuperior.dscatalog.services.bulkhead.Bulkhead;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadRoutingDataSource;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadType;
+import com.devsuperior.dscatalog.services.bulkhead.Bulkheads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.zaxxer.hikari.HikariDataSource;
+
+/*
+ * Leituras, escritas e emissao de token com vagas de thread e pools de conexao separados.
+ * Os pools usam spring.datasource.url/username/password e as opcoes de spring.datasource.hikari.*, que
+ * podem ser sobrescritas por pool em catalog.bulkheads.<tipo>.hikari.*; o tamanho vem sempre de
+ * catalog.bulkheads.<tipo>.pool-size.
+ */
+@Configuration
+@ConditionalOnProperty(name = "catalog.bulkheads.enabled", havingValue = "true", matchIfMissing = true)
+public class BulkheadConfig {
+
+	@Bean
+	public Bulkheads bulkheads(Environment env) {
+		return new Bulkheads(env);
+	}
+
+	@Bean
+	@Primary
+	public DataSource dataSource(DataSourceProperties properties, Bulkheads bulkheads, Environment env) {
+		Binder binder = Binder.get(env);
+		Map<Object, Object> pools = new HashMap<>();
+		for (Bulkhead bulkhead : bulkheads.all()) {
+			HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+			binder.bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+			binder.bind("catalog.bulkheads." + bulkhead.getType().getKey() + ".hikari", Bindable.ofInstance(pool));
+			pool.setPoolName("dscatalog-" + bulkhead.getType().getKey());
+			pool.setMaximumPoolSize(bulkhead.getPoolSize());
+			bulkhead.setPool(pool);
+			pools.put(bulkhead.getType(), pool);
+		}
+
+		BulkheadRoutingDataSource dataSource = new BulkheadRoutingDataSource(bulkheads);
+		dataSource.setTargetDataSources(pools);
+		dataSource.setDefaultTargetDataSource(pools.get(BulkheadType.WRITE));
+		return dataSource;
+	}
+
+	@Bean
+	public FilterRegistrationBean<BulkheadFilter> bulkheadFilter(Bulkheads bulkheads, ObjectMapper objectMapper) {
+		FilterRegistrationBean<BulkheadFilter> registration = new FilterRegistrationBean<>(
+				new BulkheadFilter(bulkheads, objectMapper));
+		registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER - 10);
+		return registration;
+	}
+}
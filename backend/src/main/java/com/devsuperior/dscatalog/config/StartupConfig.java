@@ -0,0 +1,43 @@
+package com.devsuperior.dscatalog.config;
+
+import org.springframework.boot.LazyInitializationExcludeFilter;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.MethodIntrospector;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import com.devsuperior.dscatalog.resources.filters.FirstRequestFilter;
+import com.devsuperior.dscatalog.resources.reactive.ReactiveCatalogServer;
+import com.devsuperior.dscatalog.services.outbox.RemoteChangeListener;
+
+/*
+ * Com spring.main.lazy-initialization=true (perfil faststart) cada bean so e criado no primeiro uso.
+ * Ficam de fora os que precisam existir sem ninguem pedir: jobs @Scheduled, o assinante do ChangeBus
+ * e o servidor reativo.
+ */
+@Configuration
+public class StartupConfig {
+
+	@Bean
+	public static LazyInitializationExcludeFilter eagerBeansExcludeFilter() {
+		LazyInitializationExcludeFilter types = LazyInitializationExcludeFilter.forBeanTypes(RemoteChangeListener.class,
+				ReactiveCatalogServer.class);
+		return (beanName, beanDefinition, beanType) -> types.isExcluded(beanName, beanDefinition, beanType)
+				|| hasScheduledMethods(beanType);
+	}
+
+	@Bean
+	public FilterRegistrationBean<FirstRequestFilter> firstRequestFilter() {
+		FilterRegistrationBean<FirstRequestFilter> registration = new FilterRegistrationBean<>(new FirstRequestFilter());
+		registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return registration;
+	}
+
+	private static boolean hasScheduledMethods(Class<?> beanType) {
+		return !MethodIntrospector.selectMethods(beanType, (MethodIntrospector.MetadataLookup<Scheduled>) method ->
+				AnnotatedElementUtils.findMergedAnnotation(method, Scheduled.class)).isEmpty();
+	}
+}
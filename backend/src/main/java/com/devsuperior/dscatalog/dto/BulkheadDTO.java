@@ -0,0 +1,113 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+import com.devsuperior.dscatalog.services.bulkhead.Bulkhead;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+public class BulkheadDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private int maxConcurrent;
+	private int active;
+	private int waiting;
+	private long rejected;
+	private int poolSize;
+	private int poolActive;
+	private int poolIdle;
+	private int poolAwaiting;
+
+	public BulkheadDTO() {
+
+	}
+
+	public BulkheadDTO(Bulkhead bulkhead) {
+		name = bulkhead.getType().getKey();
+		maxConcurrent = bulkhead.getMaxConcurrent();
+		active = bulkhead.getActive();
+		waiting = bulkhead.getWaiting();
+		rejected = bulkhead.getRejected();
+		poolSize = bulkhead.getPoolSize();
+		HikariPoolMXBean stats = bulkhead.getPoolStats();
+		if (stats != null) {
+			poolActive = stats.getActiveConnections();
+			poolIdle = stats.getIdleConnections();
+			poolAwaiting = stats.getThreadsAwaitingConnection();
+		}
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public void setMaxConcurrent(int maxConcurrent) {
+		this.maxConcurrent = maxConcurrent;
+	}
+
+	public int getActive() {
+		return active;
+	}
+
+	public void setActive(int active) {
+		this.active = active;
+	}
+
+	public int getWaiting() {
+		return waiting;
+	}
+
+	public void setWaiting(int waiting) {
+		this.waiting = waiting;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public void setPoolSize(int poolSize) {
+		this.poolSize = poolSize;
+	}
+
+	public int getPoolActive() {
+		return poolActive;
+	}
+
+	public void setPoolActive(int poolActive) {
+		this.poolActive = poolActive;
+	}
+
+	public int getPoolIdle() {
+		return poolIdle;
+	}
+
+	public void setPoolIdle(int poolIdle) {
+		this.poolIdle = poolIdle;
+	}
+
+	public int getPoolAwaiting() {
+		return poolAwaiting;
+	}
+
+	public void setPoolAwaiting(int poolAwaiting) {
+		this.poolAwaiting = poolAwaiting;
+	}
+
+}
@@ -10,6 +10,7 @@ public class CategoryDTO implements Serializable{
      
 	private Long id;
 	private String name;
+	private Long version;
 	
 	public CategoryDTO(){
 	
@@ -23,6 +24,13 @@ public class CategoryDTO implements Serializable{
 	public CategoryDTO(Category category) {
 		this.id = category.getId();
 		this.name = category.getName();
+		this.version = category.getVersion();
+	}
+	
+	public CategoryDTO(CategoryDTO other) {
+		this.id = other.id;
+		this.name = other.name;
+		this.version = other.version;
 	}
 	
 	public Long getId() {
@@ -40,5 +48,13 @@ public class CategoryDTO implements Serializable{
 	public void setName(String name) {
 		this.name = name;
 	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
 	
 }
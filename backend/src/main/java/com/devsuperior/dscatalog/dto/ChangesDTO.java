@@ -0,0 +1,44 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ChangesDTO<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<T> changed = new ArrayList<>();
+	private List<Long> deleted = new ArrayList<>();
+	private String cursor;
+	private boolean hasMore;
+
+	public ChangesDTO() {
+
+	}
+
+	public List<T> getChanged() {
+		return changed;
+	}
+
+	public List<Long> getDeleted() {
+		return deleted;
+	}
+
+	public String getCursor() {
+		return cursor;
+	}
+
+	public void setCursor(String cursor) {
+		this.cursor = cursor;
+	}
+
+	public boolean isHasMore() {
+		return hasMore;
+	}
+
+	public void setHasMore(boolean hasMore) {
+		this.hasMore = hasMore;
+	}
+
+}
@@ -0,0 +1,79 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+
+import com.devsuperior.dscatalog.services.limits.AdaptiveLimiter;
+
+public class ConcurrencyLimitDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String name;
+	private int limit;
+	private int inFlight;
+	private long rejected;
+	private double shortRttMillis;
+	private double longRttMillis;
+
+	public ConcurrencyLimitDTO() {
+
+	}
+
+	public ConcurrencyLimitDTO(AdaptiveLimiter limiter) {
+		name = limiter.getName();
+		limit = limiter.getLimit();
+		inFlight = limiter.getInFlight();
+		rejected = limiter.getRejected();
+		shortRttMillis = limiter.getShortRttMillis();
+		longRttMillis = limiter.getLongRttMillis();
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public int getLimit() {
+		return limit;
+	}
+
+	public void setLimit(int limit) {
+		this.limit = limit;
+	}
+
+	public int getInFlight() {
+		return inFlight;
+	}
+
+	public void setInFlight(int inFlight) {
+		this.inFlight = inFlight;
+	}
+
+	public long getRejected() {
+		return rejected;
+	}
+
+	public void setRejected(long rejected) {
+		this.rejected = rejected;
+	}
+
+	public double getShortRttMillis() {
+		return shortRttMillis;
+	}
+
+	public void setShortRttMillis(double shortRttMillis) {
+		this.shortRttMillis = shortRttMillis;
+	}
+
+	public double getLongRttMillis() {
+		return longRttMillis;
+	}
+
+	public void setLongRttMillis(double longRttMillis) {
+		this.longRttMillis = longRttMillis;
+	}
+
+}
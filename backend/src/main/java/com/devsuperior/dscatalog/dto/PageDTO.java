@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+/*
+ * Envelope enxuto das listagens paginadas: content, page, size, hasNext e total (quando conhecido).
+ * Substitui o Page do Spring, que serializava pageable e sort inteiros em toda resposta.
+ */
+@JsonSerialize(using = PageDTOSerializer.class)
+public class PageDTO<T> implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private List<T> content = new ArrayList<>();
+	private int page;
+	private int size;
+	private boolean hasNext;
+	private Long total;
+
+	public PageDTO() {
+
+	}
+
+	public PageDTO(List<T> content, int page, int size, boolean hasNext, Long total) {
+		this.content = content;
+		this.page = page;
+		this.size = size;
+		this.hasNext = hasNext;
+		this.total = total;
+	}
+
+	// Slice nao tem contagem: o total so vai quando a consulta ja o calculou
+	public static <T> PageDTO<T> of(Slice<T> slice) {
+		Long total = slice instanceof Page ? ((Page<T>) slice).getTotalElements() : null;
+		return new PageDTO<>(slice.getContent(), slice.getNumber(), slice.getSize(), slice.hasNext(), total);
+	}
+
+	public List<T> getContent() {
+		return content;
+	}
+
+	public void setContent(List<T> content) {
+		this.content = content;
+	}
+
+	public int getPage() {
+		return page;
+	}
+
+	public void setPage(int page) {
+		this.page = page;
+	}
+
+	public int getSize() {
+		return size;
+	}
+
+	public void setSize(int size) {
+		this.size = size;
+	}
+
+	public boolean isHasNext() {
+		return hasNext;
+	}
+
+	public void setHasNext(boolean hasNext) {
+		this.hasNext = hasNext;
+	}
+
+	public Long getTotal() {
+		return total;
+	}
+
+	public void setTotal(Long total) {
+		this.total = total;
+	}
+
+}
@@ -0,0 +1,53 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.IOException;
+import java.util.List;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+// Campos em ordem fixa, sem introspeccao de getters; total fica de fora quando nao foi contado
+public class PageDTOSerializer extends StdSerializer<PageDTO<?>> {
+
+	private static final long serialVersionUID = 1L;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	public PageDTOSerializer() {
+		super((Class) PageDTO.class);
+	}
+
+	@Override
+	public void serialize(PageDTO<?> value, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartObject(value);
+		gen.writeFieldName("content");
+		writeContent(value.getContent(), gen, provider);
+		gen.writeNumberField("page", value.getPage());
+		gen.writeNumberField("size", value.getSize());
+		gen.writeBooleanField("hasNext", value.isHasNext());
+		if (value.getTotal() != null) {
+			gen.writeNumberField("total", value.getTotal());
+		}
+		gen.writeEndObject();
+	}
+
+	// Os itens de uma pagina sao do mesmo tipo: o serializador e resolvido uma vez so
+	private void writeContent(List<?> content, JsonGenerator gen, SerializerProvider provider) throws IOException {
+		gen.writeStartArray(content, content.size());
+		JsonSerializer<Object> serializer = null;
+		Class<?> type = null;
+		for (Object item : content) {
+			if (item == null) {
+				provider.defaultSerializeNull(gen);
+				continue;
+			}
+			if (item.getClass() != type) {
+				type = item.getClass();
+				serializer = provider.findValueSerializer(type);
+			}
+			serializer.serialize(item, gen, provider);
+		}
+		gen.writeEndArray();
+	}
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+public class ProductChangeDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long id;
+	private ChangeType type;
+	private List<String> fields = new ArrayList<>();
+	private Double price;
+
+	public ProductChangeDTO() {
+
+	}
+
+	public ProductChangeDTO(ProductChangedEvent event) {
+		this.id = event.getId();
+		this.type = event.getType();
+		this.fields.addAll(event.getChangedFields());
+		this.price = event.getPrice();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public void setId(Long id) {
+		this.id = id;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+	public void setType(ChangeType type) {
+		this.type = type;
+	}
+
+	public List<String> getFields() {
+		return fields;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+}
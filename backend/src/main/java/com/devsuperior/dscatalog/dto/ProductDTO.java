@@ -33,6 +33,7 @@ public class ProductDTO implements Serializable {
     
     @PastOrPresent(message = "A data do produto não pode ser futura")
     private Instant date;
+    private Long version;
     private List<CategoryDTO> categories = new ArrayList<>();
     
     public ProductDTO() {
@@ -55,12 +56,19 @@ public class ProductDTO implements Serializable {
 		this.price = product.getPrice();
 		this.imgUrl = product.getImgUrl();
 		this.date = product.getDate();
+		this.version = product.getVersion();
 	}
 	
 	public ProductDTO(Product product, Set<Category> categories) {
 		this(product); //chama o construtor que recebe apenas o product como arg, met acima
 		categories.forEach(x -> this.categories.add(new CategoryDTO(x)) );
 	}
+	
+	public ProductDTO(ProductDTO other) {
+		this(other.id, other.name, other.description, other.price, other.imgUrl, other.date);
+		this.version = other.version;
+		other.categories.forEach(x -> this.categories.add(new CategoryDTO(x)));
+	}
 
 	public Long getId() {
 		return id;
@@ -110,6 +118,14 @@ public class ProductDTO implements Serializable {
 		this.date = date;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public void setVersion(Long version) {
+		this.version = version;
+	}
+
 	public List<CategoryDTO> getCategories() {
 		return categories;
 	}
@@ -0,0 +1,57 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ProductFacetsDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private Long totalElements = 0L;
+	private Double interval;
+	private List<PriceBucketDTO> priceBuckets = new ArrayList<>();
+	private List<CategoryCountDTO> categories = new ArrayList<>();
+
+	public ProductFacetsDTO() {
+
+	}
+
+	public ProductFacetsDTO(Double interval) {
+		this.interval = interval;
+	}
+
+	public Long getTotalElements() {
+		return totalElements;
+	}
+
+	public void setTotalElements(Long totalElements) {
+		this.totalElements = totalElements;
+	}
+
+	public Double getInterval() {
+		return interval;
+	}
+
+	public void setInterval(Double interval) {
+		this.interval = interval;
+	}
+
+	public List<PriceBucketDTO> getPriceBuckets() {
+		return priceBuckets;
+	}
+
+	public void addPriceBucket(PriceBucketDTO bucket) {
+		priceBuckets.add(bucket);
+		totalElements += bucket.getCount();
+	}
+
+	public List<CategoryCountDTO> getCategories() {
+		return categories;
+	}
+
+	public void setCategories(List<CategoryCountDTO> categories) {
+		this.categories = categories;
+	}
+
+}
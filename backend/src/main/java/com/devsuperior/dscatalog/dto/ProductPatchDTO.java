@@ -0,0 +1,83 @@
+package com.devsuperior.dscatalog.dto;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.util.List;
+
+import javax.validation.constraints.PastOrPresent;
+import javax.validation.constraints.Pattern;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+
+// Corpo do PATCH: campo null (ou ausente) nao e alterado
+public class ProductPatchDTO implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	@Size(min = 5, max = 60, message = "O campo deve ter entre 5 e 60 caracteres")
+	private String name;
+
+	@Pattern(regexp = "(?s).*\\S.*", message = "Campo Requerido")
+	private String description;
+
+	@Positive(message = "O preço deve ser um valor positivo")
+	private Double price;
+	private String imgUrl;
+
+	@PastOrPresent(message = "A data do produto não pode ser futura")
+	private Instant date;
+	private List<CategoryDTO> categories;
+
+	public ProductPatchDTO() {
+
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public String getDescription() {
+		return description;
+	}
+
+	public void setDescription(String description) {
+		this.description = description;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+	public void setPrice(Double price) {
+		this.price = price;
+	}
+
+	public String getImgUrl() {
+		return imgUrl;
+	}
+
+	public void setImgUrl(String imgUrl) {
+		this.imgUrl = imgUrl;
+	}
+
+	public Instant getDate() {
+		return date;
+	}
+
+	public void setDate(Instant date) {
+		this.date = date;
+	}
+
+	public List<CategoryDTO> getCategories() {
+		return categories;
+	}
+
+	public void setCategories(List<CategoryDTO> categories) {
+		this.categories = categories;
+	}
+
+}
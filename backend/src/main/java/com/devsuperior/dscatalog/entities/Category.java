@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -10,13 +11,15 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.ManyToMany;
 import javax.persistence.PrePersist;
 import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 @Entity
-@Table(name = "tb_category")
+@Table(name = "tb_category", indexes = @Index(name = "idx_category_update_at", columnList = "update_at, id"))
 public class Category implements Serializable {
 
 	private static final long serialVersionUID = 1L;
@@ -29,8 +32,12 @@ public class Category implements Serializable {
 	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant created_At;
 
-	@Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	@Column(name = "update_at", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
 	private Instant update_At;
+
+	@Version
+	@Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+	private Long version;
 	
 	@ManyToMany(mappedBy = "categories")
 	private Set<Product> products = new HashSet<>();
@@ -63,18 +70,23 @@ public class Category implements Serializable {
 		return created_At;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
 	public Instant getUpdateAt() {
 		return update_At;
 	}
 
 	@PrePersist
 	public void preCreate() {
-        created_At = Instant.now();
+        created_At = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        update_At = created_At;
 	}
 
 	@PreUpdate
 	public void preUpdate() {
-		update_At = Instant.now();
+		update_At = Instant.now().truncatedTo(ChronoUnit.MICROS);
 	}
 	
 	public Set<Product> getProducts() {
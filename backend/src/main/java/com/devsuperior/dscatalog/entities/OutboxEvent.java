@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import com.devsuperior.dscatalog.services.events.ChangeType;
+
+@Entity
+@Table(name = "tb_outbox", indexes = @Index(name = "idx_outbox_created_at", columnList = "created_at"))
+public class OutboxEvent implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String PRODUCT = "product";
+	public static final String CATEGORY = "category";
+	public static final String USER = "user";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private String aggregate;
+
+	@Column(name = "aggregate_id")
+	private Long aggregateId;
+
+	@Enumerated(EnumType.STRING)
+	private ChangeType type;
+
+	// Instancia que fez a escrita
+	private String origin;
+
+	@Column(name = "created_at", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant createdAt;
+
+	public OutboxEvent() {
+	}
+
+	public OutboxEvent(String aggregate, Long aggregateId, ChangeType type, String origin) {
+		this.aggregate = aggregate;
+		this.aggregateId = aggregateId;
+		this.type = type;
+		this.origin = origin;
+		this.createdAt = Instant.now();
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getAggregate() {
+		return aggregate;
+	}
+
+	public Long getAggregateId() {
+		return aggregateId;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		OutboxEvent other = (OutboxEvent) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		return true;
+	}
+
+}
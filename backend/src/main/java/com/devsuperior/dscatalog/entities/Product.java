@@ -2,6 +2,7 @@ package com.devsuperior.dscatalog.entities;
 
 import java.io.Serializable;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -10,15 +11,21 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.JoinTable;
 import javax.persistence.ManyToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.Version;
 
 
 
 @Entity
-@Table(name = "tb_product")
+@Table(name = "tb_product", indexes = {
+		@Index(name = "idx_product_price", columnList = "price"),
+		@Index(name = "idx_product_updated_at", columnList = "updated_at, id") })
 public class Product implements Serializable {
 	
 	private static final long serialVersionUID = 1L;
@@ -36,6 +43,14 @@ public class Product implements Serializable {
     @Column(columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
     private Instant date;
     
+    @Column(name = "updated_at", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+    private Instant updatedAt;
+    
+    // Default no banco para as linhas inseridas direto por SQL (import.sql, gerador de carga)
+    @Version
+    @Column(nullable = false, columnDefinition = "BIGINT DEFAULT 0")
+    private Long version;
+    
     @ManyToMany
     @JoinTable( name = "tb_product_category",
                 joinColumns = @JoinColumn(name = "product_id"),
@@ -109,6 +124,21 @@ public class Product implements Serializable {
 		return categories;
 	}
 
+	public Long getVersion() {
+		return version;
+	}
+
+	public Instant getUpdatedAt() {
+		return updatedAt;
+	}
+
+	// Microssegundos: mesma precisao da coluna, para o cursor de sincronizacao comparar valores exatos
+	@PrePersist
+	@PreUpdate
+	public void touch() {
+		updatedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+	}
+
 	@Override
 	public int hashCode() {
 		final int prime = 31;
@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.entities;
+
+import java.io.Serializable;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+@Entity
+@Table(name = "tb_tombstone", indexes = @Index(name = "idx_tombstone_resource_deleted_at", columnList = "resource, deleted_at, resource_id"))
+public class Tombstone implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	public static final String PRODUCT = "product";
+	public static final String CATEGORY = "category";
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+	private String resource;
+
+	@Column(name = "resource_id")
+	private Long resourceId;
+
+	@Column(name = "deleted_at", columnDefinition = "TIMESTAMP WITHOUT TIME ZONE")
+	private Instant deletedAt;
+
+	public Tombstone() {
+	}
+
+	public Tombstone(String resource, Long resourceId) {
+		this.resource = resource;
+		this.resourceId = resourceId;
+		this.deletedAt = Instant.now().truncatedTo(ChronoUnit.MICROS);
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public String getResource() {
+		return resource;
+	}
+
+	public Long getResourceId() {
+		return resourceId;
+	}
+
+	public Instant getDeletedAt() {
+		return deletedAt;
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		return result;
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj)
+			return true;
+		if (obj == null)
+			return false;
+		if (getClass() != obj.getClass())
+			return false;
+		Tombstone other = (Tombstone) obj;
+		if (id == null) {
+			if (other.id != null)
+				return false;
+		} else if (!id.equals(other.id))
+			return false;
+		return true;
+	}
+
+}
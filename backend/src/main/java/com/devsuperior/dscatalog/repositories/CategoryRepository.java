@@ -1,10 +1,28 @@
 package com.devsuperior.dscatalog.repositories;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.Category;
 
 @Repository
 public interface CategoryRepository extends JpaRepository<Category, Long>{
+	
+	@Query("SELECT obj FROM Category obj WHERE obj.update_At < :until "
+			+ "AND (obj.update_At > :since OR (obj.update_At = :since AND obj.id > :lastId)) "
+			+ "ORDER BY obj.update_At, obj.id")
+	List<Category> findChanges(@Param("since") Instant since, @Param("lastId") Long lastId,
+			@Param("until") Instant until, Pageable pageable);
+	
+	// Exclusao direta, sem carregar a entidade antes: devolve o numero de linhas removidas
+	@Modifying
+	@Query("DELETE FROM Category obj WHERE obj.id = :id")
+	int deleteDirectlyById(@Param("id") Long id);
         
 }
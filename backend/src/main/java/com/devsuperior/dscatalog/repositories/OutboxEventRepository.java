@@ -0,0 +1,26 @@
+package com.devsuperior.dscatalog.repositories;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long>{
+	
+	List<OutboxEvent> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+	
+	@Query("SELECT MAX(obj.id) FROM OutboxEvent obj")
+	Long findMaxId();
+	
+	@Modifying
+	@Query("DELETE FROM OutboxEvent obj WHERE obj.createdAt < :before")
+	int deleteOlderThan(@Param("before") Instant before);
+        
+}
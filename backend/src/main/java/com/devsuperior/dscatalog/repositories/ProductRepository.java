@@ -1,10 +1,57 @@
 package com.devsuperior.dscatalog.repositories;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.devsuperior.dscatalog.dto.CategoryCountDTO;
 import com.devsuperior.dscatalog.entities.Product;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long>{
+	
+	Page<Product> findByPriceBetween(Double minPrice, Double maxPrice, Pageable pageable);
+	
+	// Cada linha: [indice do bucket, quantidade de produtos]
+	@Query(nativeQuery = true, value = "SELECT t.bucket, COUNT(*) AS total FROM "
+			+ "(SELECT FLOOR(price / :interval) AS bucket FROM tb_product WHERE price BETWEEN :minPrice AND :maxPrice) t "
+			+ "GROUP BY t.bucket ORDER BY t.bucket")
+	List<Object[]> priceHistogram(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice,
+			@Param("interval") Double interval);
+	
+	// Cada linha: [menor preco, maior preco] dentro do filtro; usa o indice de preco
+	@Query("SELECT MIN(obj.price), MAX(obj.price) FROM Product obj WHERE obj.price BETWEEN :minPrice AND :maxPrice")
+	List<Object[]> priceRange(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
+	
+	@Query("SELECT new com.devsuperior.dscatalog.dto.CategoryCountDTO(cat.id, cat.name, COUNT(obj)) "
+			+ "FROM Product obj INNER JOIN obj.categories cat "
+			+ "WHERE obj.price BETWEEN :minPrice AND :maxPrice "
+			+ "GROUP BY cat.id, cat.name ORDER BY cat.name")
+	List<CategoryCountDTO> categoryCounts(@Param("minPrice") Double minPrice, @Param("maxPrice") Double maxPrice);
+	
+	// Paginacao por chave (updatedAt, id): continua exatamente de onde o cursor parou
+	@Query("SELECT obj FROM Product obj WHERE obj.updatedAt < :until "
+			+ "AND (obj.updatedAt > :since OR (obj.updatedAt = :since AND obj.id > :lastId)) "
+			+ "ORDER BY obj.updatedAt, obj.id")
+	List<Product> findChanges(@Param("since") Instant since, @Param("lastId") Long lastId,
+			@Param("until") Instant until, Pageable pageable);
+	
+	@Query("SELECT DISTINCT obj FROM Product obj LEFT JOIN FETCH obj.categories WHERE obj IN :products")
+	List<Product> findProductsWithCategories(@Param("products") List<Product> products);
+	
+	// Exclusao direta, sem carregar a entidade antes: devolve o numero de linhas removidas
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tb_product_category WHERE product_id = :id")
+	int deleteCategoryLinks(@Param("id") Long id);
+	
+	@Modifying
+	@Query("DELETE FROM Product obj WHERE obj.id = :id")
+	int deleteDirectlyById(@Param("id") Long id);
         
 }
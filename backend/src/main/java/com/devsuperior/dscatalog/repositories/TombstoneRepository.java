@@ -0,0 +1,22 @@
+package com.devsuperior.dscatalog.repositories;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.devsuperior.dscatalog.entities.Tombstone;
+
+@Repository
+public interface TombstoneRepository extends JpaRepository<Tombstone, Long>{
+	
+	@Query("SELECT obj FROM Tombstone obj WHERE obj.resource = :resource AND obj.deletedAt < :until "
+			+ "AND (obj.deletedAt > :since OR (obj.deletedAt = :since AND obj.resourceId > :lastId)) "
+			+ "ORDER BY obj.deletedAt, obj.resourceId")
+	List<Tombstone> findChanges(@Param("resource") String resource, @Param("since") Instant since,
+			@Param("lastId") Long lastId, @Param("until") Instant until, Pageable pageable);
+        
+}
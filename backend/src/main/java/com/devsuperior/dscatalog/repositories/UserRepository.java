@@ -1,5 +1,8 @@
 package com.devsuperior.dscatalog.repositories;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.devsuperior.dscatalog.entities.User;
@@ -10,4 +13,13 @@ import com.devsuperior.dscatalog.entities.User;
 public interface UserRepository extends JpaRepository<User, Long>{
         
 	User findByEmail(String email);
+	
+	// Exclusao direta, sem carregar a entidade antes: devolve o numero de linhas removidas
+	@Modifying
+	@Query(nativeQuery = true, value = "DELETE FROM tb_user_role WHERE user_id = :id")
+	int deleteRoleLinks(@Param("id") Long id);
+	
+	@Modifying
+	@Query("DELETE FROM User obj WHERE obj.id = :id")
+	int deleteDirectlyById(@Param("id") Long id);
 }
@@ -0,0 +1,34 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devsuperior.dscatalog.dto.BulkheadDTO;
+import com.devsuperior.dscatalog.services.bulkhead.Bulkheads;
+
+@RestController
+@RequestMapping(value = "/bulkheads")
+public class BulkheadResource {
+
+	// Ausente com catalog.bulkheads.enabled=false
+	@Autowired(required = false)
+	private Bulkheads bulkheads;
+	
+	@GetMapping
+	public ResponseEntity<List<BulkheadDTO>> findAll(){
+		// Vagas, fila, recusas e uso do pool de conexoes de cada particao
+		
+		if (bulkheads == null) {
+			return ResponseEntity.ok().body(new ArrayList<>());
+		}
+		return ResponseEntity.ok().body(bulkheads.all().stream().map(x -> new BulkheadDTO(x))
+				.collect(Collectors.toList()));
+	}
+}
@@ -1,6 +1,7 @@
 package com.devsuperior.dscatalog.resources;
 
 import java.net.URI;
+import java.util.concurrent.CompletableFuture;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -11,13 +12,18 @@ import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.ChangesDTO;
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.PageDTO;
 import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.async.AsyncReads;
 
 @RestController
 @RequestMapping(value = "/categories")
@@ -26,6 +32,9 @@ public class CategoryResource {
 	@Autowired
 	private CategoryService service;
 	
+	@Autowired(required = false)
+	private AsyncReads asyncReads;
+	
 	//Sem paginação
 	/*@GetMapping
 	public ResponseEntity<List<CategoryDTO>> findAll(){
@@ -34,15 +43,29 @@ public class CategoryResource {
 	}*/
 	
 	@GetMapping
-	public ResponseEntity<Page<CategoryDTO>> findAllPaged(Pageable pageable){
-		Page<CategoryDTO> list = service.findAllPaged(pageable);
-		return ResponseEntity.ok().body(list);
+	public CompletableFuture<ResponseEntity<PageDTO<CategoryDTO>>> findAllPaged(Pageable pageable){
+		return Reads.run(asyncReads, () -> {
+			Page<CategoryDTO> list = service.findAllPaged(pageable);
+			return ResponseEntity.ok().body(PageDTO.of(list));
+		});
+	}
+	
+	@GetMapping(value = "/changes")
+	public ResponseEntity<ChangesDTO<CategoryDTO>> findChanges(
+			@RequestParam(value = "since", required = false) String since,
+			@RequestParam(value = "limit", defaultValue = "100") Integer limit){
+		// since: instante ISO-8601 ou o cursor devolvido pela chamada anterior
+		
+		return ResponseEntity.ok().body(service.findChanges(since, Math.max(1, Math.min(limit, 1000))));
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<CategoryDTO> findById(@PathVariable Long id){
+	public CompletableFuture<ResponseEntity<CategoryDTO>> findById(@PathVariable Long id){
 		//List<Category> list = service.findAll();
-		return ResponseEntity.ok().body(service.findById(id));
+		return Reads.run(asyncReads, () -> {
+			CategoryDTO dto = service.findById(id);
+			return ETags.ok(dto.getVersion()).body(dto);
+		});
 	}
 	
 	@PostMapping
@@ -54,8 +77,10 @@ public class CategoryResource {
 	}
 	
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<CategoryDTO> update(@RequestBody CategoryDTO dto, @PathVariable Long id ){
-		return ResponseEntity.ok().body(service.update(dto, id));
+	public ResponseEntity<CategoryDTO> update(@RequestBody CategoryDTO dto, @PathVariable Long id,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch){
+		dto = service.update(dto, id, ETags.parseIfMatch(ifMatch));
+		return ETags.ok(dto.getVersion()).body(dto);
 	}
 	
 	@DeleteMapping(value = "/{id}")
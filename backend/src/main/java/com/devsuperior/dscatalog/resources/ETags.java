@@ -0,0 +1,38 @@
+package com.devsuperior.dscatalog.resources;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
+
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
+
+// ETag forte com o @Version da entidade: "3"
+final class ETags {
+
+	private ETags() {
+	}
+
+	static BodyBuilder ok(Long version) {
+		BodyBuilder builder = ResponseEntity.ok();
+		if (version != null) {
+			builder.eTag("\"" + version + "\"");
+		}
+		return builder;
+	}
+
+	// null quando nao ha If-Match ou e "*"; qualquer valor que nao seja uma versao nossa nunca casa
+	static Long parseIfMatch(String header) {
+		if (header == null || header.isBlank() || header.trim().equals("*")) {
+			return null;
+		}
+		String tag = header.trim();
+		if (tag.length() < 3 || !tag.startsWith("\"") || !tag.endsWith("\"")) {
+			throw new PreconditionFailedException("If-Match must be a single strong ETag");
+		}
+		try {
+			return Long.parseLong(tag.substring(1, tag.length() - 1));
+		}
+		catch (NumberFormatException e) {
+			throw new PreconditionFailedException("If-Match does not match the current version");
+		}
+	}
+}
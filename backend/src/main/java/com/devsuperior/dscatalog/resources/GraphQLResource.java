@@ -0,0 +1,28 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devsuperior.dscatalog.dto.GraphQLRequestDTO;
+import com.devsuperior.dscatalog.services.graphql.CatalogGraphQL;
+
+@RestController
+@RequestMapping(value = "/graphql")
+public class GraphQLResource {
+
+	@Autowired
+	private CatalogGraphQL graphQL;
+	
+	@PostMapping
+	public ResponseEntity<Map<String, Object>> execute(@RequestBody GraphQLRequestDTO dto){
+		// Corpo: query, operationName, variables (erros de validacao e limites vem em "errors")
+		
+		return ResponseEntity.ok().body(graphQL.execute(dto.getQuery(), dto.getOperationName(), dto.getVariables()));
+	}
+}
@@ -0,0 +1,35 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.devsuperior.dscatalog.dto.ConcurrencyLimitDTO;
+import com.devsuperior.dscatalog.services.limits.ConcurrencyLimitAspect;
+
+@RestController
+@RequestMapping(value = "/limits")
+public class LimitResource {
+
+	// Ausente com catalog.limits.enabled=false
+	@Autowired(required = false)
+	private ConcurrencyLimitAspect limits;
+	
+	@GetMapping
+	public ResponseEntity<List<ConcurrencyLimitDTO>> findAll(){
+		// Limite atual, chamadas em andamento e recusadas de cada grupo de endpoints
+		
+		if (limits == null) {
+			return ResponseEntity.ok().body(new ArrayList<>());
+		}
+		return ResponseEntity.ok().body(limits.getLimiters().stream().map(x -> new ConcurrencyLimitDTO(x))
+				.sorted(Comparator.comparing(ConcurrencyLimitDTO::getName)).collect(Collectors.toList()));
+	}
+}
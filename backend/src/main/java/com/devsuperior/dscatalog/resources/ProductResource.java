@@ -1,33 +1,76 @@
 package com.devsuperior.dscatalog.resources;
 
+import java.io.IOException;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.ResponseEntity.BodyBuilder;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.ChangesDTO;
+import com.devsuperior.dscatalog.dto.PageDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.dto.ProductPatchDTO;
+import com.devsuperior.dscatalog.dto.SuggestionDTO;
 import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.async.AsyncReads;
+import com.devsuperior.dscatalog.services.cache.ProductDetailCache;
+import com.devsuperior.dscatalog.services.cache.SerializedProduct;
+import com.devsuperior.dscatalog.services.image.CachedImage;
+import com.devsuperior.dscatalog.services.snapshot.ProductSnapshotService;
 
 @RestController
 @RequestMapping(value = "/products")
 public class ProductResource {
     
+	private static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+	
 	@Autowired
 	private ProductService service;
 	
+	@Autowired(required = false)
+	private ProductSnapshotService snapshotService;
+	
+	@Autowired(required = false)
+	private ProductDetailCache detailCache;
+	
+	// Presente com catalog.async.enabled=true: as leituras rodam fora da thread do servlet
+	@Autowired(required = false)
+	private AsyncReads asyncReads;
+	
+	@Value("${catalog.images.max-age-seconds:86400}")
+	private long imageMaxAgeSeconds;
+	
 	//Sem paginação
 	/*@GetMapping
 	public ResponseEntity<List<ProductDTO>> findAll(){
@@ -36,17 +79,190 @@ public class ProductResource {
 	}*/
 	
 	@GetMapping
-	public ResponseEntity<Page<ProductDTO>> findAllPaged(Pageable pageable){
-		// Parametros: page, size, sort
+	public CompletableFuture<ResponseEntity<PageDTO<ProductDTO>>> findAllPaged(
+			@RequestParam(value = "minPrice", required = false) Double minPrice,
+			@RequestParam(value = "maxPrice", required = false) Double maxPrice,
+			Pageable pageable){
+		// Parametros: page, size, sort, minPrice, maxPrice
+		
+		return Reads.run(asyncReads, () -> {
+			Page<ProductDTO> list = snapshotService != null && snapshotService.supports(pageable)
+					? snapshotService.findAllPaged(minPrice, maxPrice, pageable)
+					: service.findAllPaged(minPrice, maxPrice, pageable);
+			return ResponseEntity.ok().body(PageDTO.of(list));
+		});
+	}
+	
+	@GetMapping(value = "/by-categories")
+	public CompletableFuture<ResponseEntity<PageDTO<ProductDTO>>> findByCategories(
+			@RequestParam(value = "all", required = false) List<Long> all,
+			@RequestParam(value = "any", required = false) List<Long> any,
+			@RequestParam(value = "none", required = false) List<Long> none,
+			Pageable pageable){
+		// Parametros: all, any, none (listas de ids de categoria), page, size
+		
+		return Reads.run(asyncReads,
+				() -> ResponseEntity.ok().body(PageDTO.of(service.findByCategories(all, any, none, pageable))));
+	}
+	
+	@GetMapping(value = "/search")
+	public CompletableFuture<ResponseEntity<PageDTO<ProductDTO>>> search(@RequestParam(value = "q") String query, Pageable pageable){
+		// Parametros: q, page, size (ordenado pela similaridade)
+		
+		return Reads.run(asyncReads, () -> ResponseEntity.ok().body(PageDTO.of(service.search(query, pageable))));
+	}
+	
+	@GetMapping(value = "/suggest")
+	public ResponseEntity<List<SuggestionDTO>> suggest(
+			@RequestParam(value = "prefix") String prefix,
+			@RequestParam(value = "limit", defaultValue = "10") Integer limit){
+		return ResponseEntity.ok().body(service.suggest(prefix, Math.min(limit, 50)));
+	}
+	
+	@GetMapping(value = "/facets")
+	public ResponseEntity<ProductFacetsDTO> facets(
+			@RequestParam(value = "minPrice", required = false) Double minPrice,
+			@RequestParam(value = "maxPrice", required = false) Double maxPrice,
+			@RequestParam(value = "interval", defaultValue = "500") Double interval){
+		// interval zero ou negativo vira 400 no service
+		return ResponseEntity.ok().body(service.facets(minPrice, maxPrice, interval));
+	}
+	
+	@GetMapping(value = "/changes")
+	public ResponseEntity<ChangesDTO<ProductDTO>> findChanges(
+			@RequestParam(value = "since", required = false) String since,
+			@RequestParam(value = "limit", defaultValue = "100") Integer limit){
+		// since: instante ISO-8601 ou o cursor devolvido pela chamada anterior
 		
-		Page<ProductDTO> list = service.findAllPaged(pageable);
-		return ResponseEntity.ok().body(list);
+		return ResponseEntity.ok().body(service.findChanges(since, Math.max(1, Math.min(limit, 1000))));
+	}
+	
+	// Eventos "product" com id, campos alterados e preco novo; comentarios de heartbeat periodicos
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	public SseEmitter stream(){
+		return service.subscribe();
 	}
 	
 	@GetMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> findById(@PathVariable Long id){
+	public CompletableFuture<ResponseEntity<Object>> findById(@PathVariable Long id,
+			@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+			@RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept){
 		//List<Product> list = service.findAll();
-		return ResponseEntity.ok().body(service.findById(id));
+		return Reads.run(asyncReads, () -> detail(id, acceptEncoding, accept));
+	}
+	
+	// Corpo e o ProductDTO (conversores) ou os bytes JSON ja serializados do cache
+	private ResponseEntity<Object> detail(Long id, String acceptEncoding, String accept){
+		// O cache guarda JSON: pedidos em CBOR/Smile passam pelo conversor normal
+		if (detailCache == null || !prefersJson(accept)) {
+			ProductDTO dto = service.findById(id);
+			return ETags.ok(dto.getVersion()).body(dto);
+		}
+		
+		// Bytes ja serializados vao direto para a resposta
+		SerializedProduct cached = detailCache.get(id);
+		boolean gzip = cached.getGzip() != null && acceptsGzip(acceptEncoding);
+		BodyBuilder builder = ETags.ok(cached.getVersion()).contentType(MediaType.APPLICATION_JSON)
+				.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+		if (gzip) {
+			builder.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+		}
+		return builder.body(gzip ? cached.getGzip() : cached.getJson());
+	}
+	
+	// Primeiro tipo do Accept (por especificidade e q) que algum conversor produz decide o formato
+	private static boolean prefersJson(String accept) {
+		if (accept == null || accept.isBlank()) {
+			return true;
+		}
+		List<MediaType> types;
+		try {
+			types = MediaType.parseMediaTypes(accept);
+		}
+		catch (InvalidMediaTypeException e) {
+			return false;
+		}
+		MediaType.sortBySpecificityAndQuality(types);
+		for (MediaType type : types) {
+			if (type.getQualityValue() == 0.0) {
+				// application/json;q=0 recusa JSON mesmo que um curinga venha depois
+				if (type.includes(MediaType.APPLICATION_JSON) && !type.isWildcardType() && !type.isWildcardSubtype()) {
+					return false;
+				}
+				continue;
+			}
+			if (type.isCompatibleWith(MediaType.APPLICATION_JSON)) {
+				return true;
+			}
+			if (type.isCompatibleWith(MediaType.APPLICATION_CBOR) || type.isCompatibleWith(SMILE)) {
+				return false;
+			}
+		}
+		return false;
+	}
+	
+	// Accept-Encoding com q: "gzip" (ou o alias x-gzip) explicito vale mais que "*"; q=0 recusa
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isBlank()) {
+			return false;
+		}
+		Double gzip = null;
+		Double any = null;
+		for (String element : acceptEncoding.split(",")) {
+			String[] parts = element.split(";");
+			String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+			double q = 1.0;
+			for (int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if (param.length() > 2 && param.substring(0, 2).equalsIgnoreCase("q=")) {
+					try {
+						q = Double.parseDouble(param.substring(2).trim());
+					}
+					catch (NumberFormatException e) {
+						q = 0.0;
+					}
+				}
+			}
+			if (coding.equals("gzip") || coding.equals("x-gzip")) {
+				gzip = gzip == null ? q : Math.max(gzip, q);
+			}
+			else if (coding.equals("*")) {
+				any = any == null ? q : Math.max(any, q);
+			}
+		}
+		if (gzip != null) {
+			return gzip > 0.0;
+		}
+		return any != null && any > 0.0;
+	}
+	
+	// w: largura desejada, arredondada para a proxima largura servida; sem w, a maior
+	@GetMapping(value = "/{id}/image")
+	public void image(@PathVariable Long id, @RequestParam(value = "w", required = false) Integer width,
+			HttpServletRequest request, HttpServletResponse response) throws IOException {
+		CachedImage image = service.findImage(id, width);
+		response.setHeader(HttpHeaders.ETAG, image.getETag());
+		response.setHeader(HttpHeaders.CACHE_CONTROL, "public, max-age=" + imageMaxAgeSeconds);
+		if (image.getETag().equals(request.getHeader(HttpHeaders.IF_NONE_MATCH))) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		response.setContentType(image.getContentType());
+		response.setContentLengthLong(image.getLength());
+		
+		// Tomcat com sendfile: o kernel copia do arquivo para o socket, sem passar pela JVM.
+		// O Tomcat abre o arquivo depois do retorno; o ImageCache so apaga arquivos removidos apos a carencia
+		if (Boolean.TRUE.equals(request.getAttribute("org.apache.tomcat.sendfile.support"))) {
+			request.setAttribute("org.apache.tomcat.sendfile.filename", image.getPath().toAbsolutePath().toString());
+			request.setAttribute("org.apache.tomcat.sendfile.start", 0L);
+			request.setAttribute("org.apache.tomcat.sendfile.end", image.getLength());
+			return;
+		}
+		ByteBuffer buffer = image.getBuffer();
+		WritableByteChannel channel = Channels.newChannel(response.getOutputStream());
+		while (buffer.hasRemaining()) {
+			channel.write(buffer);
+		}
 	}
 	
 	@PostMapping
@@ -58,8 +274,17 @@ public class ProductResource {
 	}
 	
 	@PutMapping(value = "/{id}")
-	public ResponseEntity<ProductDTO> update(@Valid @RequestBody ProductDTO dto, @PathVariable Long id ){
-		return ResponseEntity.ok().body(service.update(dto, id));
+	public ResponseEntity<ProductDTO> update(@Valid @RequestBody ProductDTO dto, @PathVariable Long id,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch){
+		dto = service.update(dto, id, ETags.parseIfMatch(ifMatch));
+		return ETags.ok(dto.getVersion()).body(dto);
+	}
+	
+	@PatchMapping(value = "/{id}")
+	public ResponseEntity<ProductDTO> patch(@Valid @RequestBody ProductPatchDTO dto, @PathVariable Long id,
+			@RequestHeader(value = "If-Match", required = false) String ifMatch){
+		ProductDTO result = service.patch(dto, id, ETags.parseIfMatch(ifMatch));
+		return ETags.ok(result.getVersion()).body(result);
 	}
 	
 	@DeleteMapping(value = "/{id}")
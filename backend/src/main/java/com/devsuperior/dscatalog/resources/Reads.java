@@ -0,0 +1,19 @@
+package com.devsuperior.dscatalog.resources;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.http.ResponseEntity;
+
+import com.devsuperior.dscatalog.services.async.AsyncReads;
+
+// Sempre CompletableFuture<ResponseEntity>: ja completo no modo bloqueante, rodando no AsyncReads com catalog.async.enabled=true
+final class Reads {
+
+	private Reads() {
+	}
+
+	static <T> CompletableFuture<ResponseEntity<T>> run(AsyncReads asyncReads, Supplier<ResponseEntity<T>> call) {
+		return asyncReads == null ? CompletableFuture.completedFuture(call.get()) : asyncReads.submit(call);
+	}
+}
@@ -18,6 +18,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.devsuperior.dscatalog.dto.PageDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
@@ -38,11 +39,11 @@ public class UserResource {
 	}*/
 	
 	@GetMapping
-	public ResponseEntity<Page<UserDTO>> findAllPaged(Pageable pageable){
+	public ResponseEntity<PageDTO<UserDTO>> findAllPaged(Pageable pageable){
 		// Parametros: page, size, sort
 		
 		Page<UserDTO> list = service.findAllPaged(pageable);
-		return ResponseEntity.ok().body(list);
+		return ResponseEntity.ok().body(PageDTO.of(list));
 	}
 	
 	@GetMapping(value = "/{id}")
@@ -0,0 +1,141 @@
+package com.devsuperior.dscatalog.resources.filters;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.devsuperior.dscatalog.resources.exceptions.StandardError;
+import com.devsuperior.dscatalog.services.bulkhead.Bulkhead;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadContext;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadType;
+import com.devsuperior.dscatalog.services.bulkhead.Bulkheads;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Antes do Spring Security: o login (/oauth/token) ja consulta o banco pela particao auth.
+ * Requisicoes assincronas so devolvem a vaga quando terminam de fato (AsyncListener), nao quando
+ * a thread do servlet retorna. O SSE fica de fora: a conexao dura minutos e nao usa o banco.
+ */
+public class BulkheadFilter extends OncePerRequestFilter {
+
+	private static final String STREAM_PATH = "/products/stream";
+
+	private final Bulkheads bulkheads;
+	private final ObjectMapper objectMapper;
+
+	public BulkheadFilter(Bulkheads bulkheads, ObjectMapper objectMapper) {
+		this.bulkheads = bulkheads;
+		this.objectMapper = objectMapper;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return path(request).equals(STREAM_PATH);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		String path = path(request);
+		Bulkhead bulkhead = bulkheads.get(BulkheadType.classify(request.getMethod(), path));
+
+		boolean entered;
+		try {
+			entered = bulkhead.tryEnter();
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			entered = false;
+		}
+		if (!entered) {
+			reject(bulkhead, request, response);
+			return;
+		}
+
+		BulkheadContext.set(bulkhead.getType());
+		boolean async = false;
+		try {
+			chain.doFilter(request, response);
+			if (request.isAsyncStarted()) {
+				request.getAsyncContext().addListener(new ExitListener(bulkhead));
+				async = true;
+			}
+		}
+		finally {
+			BulkheadContext.clear();
+			if (!async) {
+				bulkhead.exit();
+			}
+		}
+	}
+
+	private static String path(HttpServletRequest request) {
+		return request.getRequestURI().substring(request.getContextPath().length());
+	}
+
+	private void reject(Bulkhead bulkhead, HttpServletRequest request, HttpServletResponse response)
+			throws IOException {
+		HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Service overloaded");
+		err.setMessage("Bulkhead " + bulkhead.getType().getKey() + " is full");
+		err.setPath(request.getRequestURI());
+
+		response.setStatus(status.value());
+		response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), err);
+	}
+
+	// Depois de onTimeout/onError o container ainda chama onComplete: a vaga e devolvida uma vez so
+	private static class ExitListener implements AsyncListener {
+
+		private final Bulkhead bulkhead;
+		private final AtomicBoolean exited = new AtomicBoolean();
+
+		ExitListener(Bulkhead bulkhead) {
+			this.bulkhead = bulkhead;
+		}
+
+		@Override
+		public void onComplete(AsyncEvent event) {
+			exit();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			exit();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			exit();
+		}
+
+		// Um novo startAsync descarta os listeners: registra de novo para o mesmo ciclo
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+
+		private void exit() {
+			if (exited.compareAndSet(false, true)) {
+				bulkhead.exit();
+			}
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package com.devsuperior.dscatalog.resources.filters;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+// Tempo desde o inicio da JVM ate a primeira resposta, incluindo o que a inicializacao lazy deixou para ela
+public class FirstRequestFilter extends OncePerRequestFilter {
+
+	private static Logger logger = LoggerFactory.getLogger(FirstRequestFilter.class);
+
+	private final AtomicBoolean served = new AtomicBoolean();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		if (served.get()) {
+			chain.doFilter(request, response);
+			return;
+		}
+		long start = System.nanoTime();
+		try {
+			chain.doFilter(request, response);
+		}
+		finally {
+			if (served.compareAndSet(false, true)) {
+				logger.info("Time to first request: " + ManagementFactory.getRuntimeMXBean().getUptime()
+						+ " ms since JVM start (" + request.getMethod() + " " + request.getRequestURI() + " took "
+						+ (System.nanoTime() - start) / 1_000_000 + " ms)");
+			}
+		}
+	}
+}
@@ -0,0 +1,163 @@
+package com.devsuperior.dscatalog.resources.reactive;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.token.store.JwtTokenStore;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ResponseStatusException;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.resources.exceptions.StandardError;
+import com.devsuperior.dscatalog.services.reactive.ReactiveCatalogReader;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+@Component
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogHandler {
+
+	@Autowired
+	private ReactiveCatalogReader reader;
+
+	@Autowired
+	private JwtTokenStore tokenStore;
+
+	@Value("${catalog.reactive.max-page-size:2000}")
+	private int maxPageSize;
+
+	@Value("${catalog.reactive.stream-chunk-size:500}")
+	private int streamChunkSize;
+
+	// O Netty fica fora da cadeia do Spring Security: exige o mesmo JWT emitido por /oauth/token
+	public Mono<ServerResponse> authenticate(ServerRequest request, HandlerFunction<ServerResponse> next) {
+		String header = request.headers().firstHeader(HttpHeaders.AUTHORIZATION);
+		if (header == null || !header.regionMatches(true, 0, "Bearer ", 0, 7)) {
+			return unauthorized(request, "Full authentication is required to access this resource");
+		}
+		try {
+			OAuth2AccessToken token = tokenStore.readAccessToken(header.substring(7).trim());
+			if (token == null || token.isExpired()) {
+				return unauthorized(request, "Access token expired");
+			}
+		}
+		catch (InvalidTokenException e) {
+			return unauthorized(request, "Invalid access token");
+		}
+		return next.handle(request);
+	}
+
+	// Parametros: page, size, minPrice, maxPrice
+	public Mono<ServerResponse> findProducts(ServerRequest request) {
+		int size = pageSize(request);
+		long offset = (long) intParam(request, "page", 0) * size;
+		Double minPrice = doubleParam(request, "minPrice");
+		Double maxPrice = doubleParam(request, "maxPrice");
+		return list(request, reader.findProducts(minPrice, maxPrice, offset, size), ProductDTO.class);
+	}
+
+	public Mono<ServerResponse> streamProducts(ServerRequest request) {
+		return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON)
+				.body(reader.streamProducts(streamChunkSize), ProductDTO.class);
+	}
+
+	public Mono<ServerResponse> findProduct(ServerRequest request) {
+		Long id = idParam(request);
+		return reader.findProduct(id)
+				.flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto))
+				.switchIfEmpty(Mono.defer(() -> notFound(request)));
+	}
+
+	// Parametros: page, size
+	public Mono<ServerResponse> findCategories(ServerRequest request) {
+		int size = pageSize(request);
+		long offset = (long) intParam(request, "page", 0) * size;
+		return list(request, reader.findCategories(offset, size), CategoryDTO.class);
+	}
+
+	public Mono<ServerResponse> findCategory(ServerRequest request) {
+		Long id = idParam(request);
+		return reader.findCategory(id)
+				.flatMap(dto -> ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(dto))
+				.switchIfEmpty(Mono.defer(() -> notFound(request)));
+	}
+
+	// application/x-ndjson escreve item a item conforme a demanda do cliente; senao um array JSON
+	private static <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> body, Class<T> type) {
+		boolean ndjson = request.headers().accept().stream()
+				.anyMatch(x -> x.equalsTypeAndSubtype(MediaType.APPLICATION_NDJSON));
+		return ServerResponse.ok().contentType(ndjson ? MediaType.APPLICATION_NDJSON : MediaType.APPLICATION_JSON)
+				.body(body, type);
+	}
+
+	private static Mono<ServerResponse> notFound(ServerRequest request) {
+		HttpStatus status = HttpStatus.NOT_FOUND;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Resource not found");
+		err.setMessage("Id não encontrado");
+		err.setPath(request.path());
+		return ServerResponse.status(status).contentType(MediaType.APPLICATION_JSON).bodyValue(err);
+	}
+
+	private static Mono<ServerResponse> unauthorized(ServerRequest request, String message) {
+		HttpStatus status = HttpStatus.UNAUTHORIZED;
+		StandardError err = new StandardError();
+		err.setTimestamp(Instant.now());
+		err.setStatus(status.value());
+		err.setError("Unauthorized");
+		err.setMessage(message);
+		err.setPath(request.path());
+		return ServerResponse.status(status).header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+				.contentType(MediaType.APPLICATION_JSON).bodyValue(err);
+	}
+
+	// A rota so aceita digitos, mas um numero maior que Long.MAX_VALUE ainda chega aqui
+	private static Long idParam(ServerRequest request) {
+		try {
+			return Long.valueOf(request.pathVariable("id"));
+		}
+		catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid id");
+		}
+	}
+
+	private int pageSize(ServerRequest request) {
+		int size = intParam(request, "size", 20);
+		if (size < 1) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive");
+		}
+		return Math.min(size, maxPageSize);
+	}
+
+	private static int intParam(ServerRequest request, String name, int defaultValue) {
+		try {
+			return request.queryParam(name).map(Integer::parseInt).map(x -> Math.max(x, 0)).orElse(defaultValue);
+		}
+		catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name);
+		}
+	}
+
+	private static Double doubleParam(ServerRequest request, String name) {
+		try {
+			return request.queryParam(name).map(Double::valueOf).orElse(null);
+		}
+		catch (NumberFormatException e) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid " + name);
+		}
+	}
+}
@@ -0,0 +1,88 @@
+package com.devsuperior.dscatalog.resources.reactive;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.resources.LoopResources;
+
+/*
+ * Leituras de produtos e categorias num servidor Netty proprio (catalog.reactive.port), ao lado
+ * do Tomcat, com o mesmo token Bearer (JWT) da API MVC. Nenhuma requisicao prende thread:
+ * catalog.reactive.threads event loops atendem todas as conexoes.
+ * As escritas continuam no ProductResource/ProductService (JPA).
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogServer {
+
+	private static Logger logger = LoggerFactory.getLogger(ReactiveCatalogServer.class);
+
+	@Autowired
+	private ReactiveCatalogHandler handler;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${catalog.reactive.port:8081}")
+	private int port;
+
+	@Value("${catalog.reactive.threads:4}")
+	private int threads;
+
+	private LoopResources loops;
+	private DisposableServer server;
+
+	@PostConstruct
+	public void start() {
+		RouterFunction<ServerResponse> router = RouterFunctions.route()
+				.GET("/products/stream", handler::streamProducts)
+				.GET("/products/{id:[0-9]+}", handler::findProduct)
+				.GET("/products", handler::findProducts)
+				.GET("/categories/{id:[0-9]+}", handler::findCategory)
+				.GET("/categories", handler::findCategories)
+				.filter(handler::authenticate)
+				.build();
+
+		// Mesmo ObjectMapper do MVC: datas e campos saem iguais nas duas APIs
+		HandlerStrategies strategies = HandlerStrategies.builder().codecs(codecs -> {
+			codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+			codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+		}).build();
+
+		loops = LoopResources.create("catalog-reactive", threads, true);
+		server = HttpServer.create()
+				.port(port)
+				.runOn(loops)
+				.handle(new ReactorHttpHandlerAdapter(RouterFunctions.toHttpHandler(router, strategies)))
+				.bindNow();
+		logger.info("Reactive catalog reads listening on port " + server.port() + " with " + threads + " event loops");
+	}
+
+	@PreDestroy
+	public void stop() {
+		server.disposeNow();
+		loops.dispose();
+	}
+
+	public int getPort() {
+		return server.port();
+	}
+}
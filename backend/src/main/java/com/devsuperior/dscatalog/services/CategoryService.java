@@ -1,4 +1,5 @@
 package com.devsuperior.dscatalog.services;
+import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -6,25 +7,62 @@ import java.util.stream.Collectors;
 import javax.persistence.EntityNotFoundException;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ChangesDTO;
 import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.entities.Tombstone;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
+import com.devsuperior.dscatalog.services.cache.SingleFlight;
+import com.devsuperior.dscatalog.services.events.CategoryChangedEvent;
+import com.devsuperior.dscatalog.services.events.ChangeType;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.limits.ConcurrencyLimited;
+import com.devsuperior.dscatalog.services.outbox.OutboxService;
+import com.devsuperior.dscatalog.services.sync.ChangeCursor;
+import com.devsuperior.dscatalog.services.sync.ChangeFeed;
 
 @Service
+@ConcurrencyLimited("categories")
 public class CategoryService {
+	
+	private static final String FIND_BY_ID_FLIGHT = "category.findById";
     
 	@Autowired
 	private CategoryRepository repository;
 	
+	@Autowired
+	private TombstoneRepository tombstoneRepository;
+	
+	@Autowired
+	private OutboxService outboxService;
+	
+	@Autowired
+	private ApplicationEventPublisher publisher;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Value("${catalog.changes.safety-lag-ms:1000}")
+	private long changesSafetyLagMs;
+	
 	@Transactional(readOnly = true )
 	public List<CategoryDTO> findAll(){
 		List<Category> list = repository.findAll();
@@ -45,40 +83,80 @@ public class CategoryService {
 		return list.map(x -> new CategoryDTO(x));
 	}
 
-	@Transactional(readOnly = true )
 	public CategoryDTO findById(Long id) {
-		Optional<Category> obj = repository.findById(id);
-		Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Id não encontrado"));
-		return new CategoryDTO(entity);
+		return singleFlight.load(FIND_BY_ID_FLIGHT, id, () -> {
+			Optional<Category> obj = repository.findById(id);
+			Category entity = obj.orElseThrow(() -> new ResourceNotFoundException("Id não encontrado"));
+			return new CategoryDTO(entity);
+		}, CategoryDTO::new);
+	}
+	
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@CacheEvict(value = ProductService.FACETS_CACHE, allEntries = true)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCategoryChanged(CategoryChangedEvent event) {
+		singleFlight.forget(FIND_BY_ID_FLIGHT, event.getId());
+	}
+	
+	@Transactional(readOnly = true )
+	public ChangesDTO<CategoryDTO> findChanges(String since, int limit){
+		ChangeCursor cursor = ChangeCursor.parse(since);
+		Instant until = Instant.now().minusMillis(changesSafetyLagMs);
+		PageRequest page = PageRequest.of(0, limit);
+		
+		List<Category> changed = repository.findChanges(cursor.getTimestamp(), cursor.getId(), until, page);
+		List<Tombstone> deleted = tombstoneRepository.findChanges(Tombstone.CATEGORY, cursor.getTimestamp(),
+				cursor.getId(), until, page);
+		
+		return ChangeFeed.merge(cursor, limit, changed, x -> new ChangeCursor(x.getUpdateAt(), x.getId()),
+				x -> new CategoryDTO(x), deleted);
 	}
 	
 	@Transactional
 	public CategoryDTO insert(CategoryDTO dto) {
 		Category category = new Category();
 		category.setName(dto.getName());
-	    return new CategoryDTO(repository.save(category));
+		category = repository.save(category);
+		outboxService.record(OutboxEvent.CATEGORY, category.getId(), ChangeType.INSERTED);
+	    return new CategoryDTO(category);
 	}
 	
 	@Transactional
-	public CategoryDTO update(CategoryDTO dto, Long id) {
+	public CategoryDTO update(CategoryDTO dto, Long id, Long expectedVersion) {
 		try {
 		    @SuppressWarnings("deprecation")
 			Category category = repository.getOne(id);
+		    if (expectedVersion != null && !expectedVersion.equals(category.getVersion())) {
+		    	throw new PreconditionFailedException("Version mismatch for id " + id);
+		    }
 		    category.setName(dto.getName());
-		    return new CategoryDTO(repository.save(category));
+		    category = repository.saveAndFlush(category);
+		    outboxService.record(OutboxEvent.CATEGORY, id, ChangeType.UPDATED);
+		    publisher.publishEvent(new CategoryChangedEvent(id, ChangeType.UPDATED));
+		    return new CategoryDTO(category);
 		}
 		catch(EntityNotFoundException e) {
 			 throw new ResourceNotFoundException("Id not found " + id);
 		}
+		catch(OptimisticLockingFailureException e) {
+			if (expectedVersion != null) {
+				throw new PreconditionFailedException("Version mismatch for id " + id);
+			}
+			throw e;
+		}
 		
 	}
 	
+	@Transactional
 	public void delete( Long id) {
 		try {
-			repository.deleteById(id);
-		}
-		catch(EmptyResultDataAccessException e) {
-			 throw new ResourceNotFoundException("Id not found " + id);
+			// Categoria ainda associada a produtos: a FK de tb_product_category barra e vira DatabaseException
+			if (repository.deleteDirectlyById(id) == 0) {
+				throw new ResourceNotFoundException("Id not found " + id);
+			}
+			tombstoneRepository.save(new Tombstone(Tombstone.CATEGORY, id));
+			outboxService.record(OutboxEvent.CATEGORY, id, ChangeType.DELETED);
+			publisher.publishEvent(new CategoryChangedEvent(id, ChangeType.DELETED));
 		}
 		catch(DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity Violation");
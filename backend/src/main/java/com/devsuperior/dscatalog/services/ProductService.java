@@ -1,29 +1,76 @@
 package com.devsuperior.dscatalog.services;
+import java.time.Instant;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
 import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
 
+import org.roaringbitmap.RoaringBitmap;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ChangesDTO;
+import com.devsuperior.dscatalog.dto.PriceBucketDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
+import com.devsuperior.dscatalog.dto.ProductPatchDTO;
+import com.devsuperior.dscatalog.dto.SuggestionDTO;
 import com.devsuperior.dscatalog.entities.Category;
+import com.devsuperior.dscatalog.entities.OutboxEvent;
 import com.devsuperior.dscatalog.entities.Product;
+import com.devsuperior.dscatalog.entities.Tombstone;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
+import com.devsuperior.dscatalog.services.cache.SingleFlight;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.InvalidFacetException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.image.CachedImage;
+import com.devsuperior.dscatalog.services.image.ProductImageService;
+import com.devsuperior.dscatalog.services.index.CategoryBitmapIndex;
+import com.devsuperior.dscatalog.services.index.ProductFuzzySearchService;
+import com.devsuperior.dscatalog.services.index.ProductSuggestionService;
+import com.devsuperior.dscatalog.services.index.TrigramIndex;
+import com.devsuperior.dscatalog.services.limits.ConcurrencyLimited;
+import com.devsuperior.dscatalog.services.outbox.OutboxService;
+import com.devsuperior.dscatalog.services.stream.ProductChangeStream;
+import com.devsuperior.dscatalog.services.sync.ChangeCursor;
+import com.devsuperior.dscatalog.services.sync.ChangeFeed;
 
 @Service
+@ConcurrencyLimited("products")
 public class ProductService {
+	
+	public static final String FACETS_CACHE = "productFacets";
+	
+	private static final String FIND_BY_ID_FLIGHT = "product.findById";
     
 	@Autowired
 	private ProductRepository repository;
@@ -31,6 +78,40 @@ public class ProductService {
 	@Autowired
 	private CategoryRepository catRepository;
 	
+	@Autowired
+	private TombstoneRepository tombstoneRepository;
+	
+	@Autowired
+	private OutboxService outboxService;
+	
+	@Autowired
+	private ApplicationEventPublisher publisher;
+	
+	@Autowired
+	private CategoryBitmapIndex categoryIndex;
+	
+	@Autowired
+	private ProductSuggestionService suggestionService;
+	
+	@Autowired
+	private ProductFuzzySearchService fuzzySearchService;
+	
+	@Autowired
+	private ProductChangeStream changeStream;
+	
+	@Autowired
+	private ProductImageService imageService;
+	
+	@Autowired
+	private SingleFlight singleFlight;
+	
+	@Value("${catalog.facets.max-buckets:1000}")
+	private int maxFacetBuckets;
+	
+	// Alteracoes mais recentes que isso ainda podem ter transacoes concorrentes sem commit
+	@Value("${catalog.changes.safety-lag-ms:1000}")
+	private long changesSafetyLagMs;
+	
 	@Transactional(readOnly = true )
 	public List<ProductDTO> findAll(){
 		List<Product> list = repository.findAll();
@@ -51,12 +132,112 @@ public class ProductService {
 		
 		return list.map(x -> new ProductDTO(x));
 	}
-
+	
 	@Transactional(readOnly = true )
+	public Page<ProductDTO> findAllPaged(Double minPrice, Double maxPrice, Pageable pageable){
+		if (minPrice == null && maxPrice == null) {
+			return findAllPaged(pageable);
+		}
+		Page<Product> list = repository.findByPriceBetween(lowerBound(minPrice), upperBound(maxPrice), pageable);
+		
+		return list.map(x -> new ProductDTO(x));
+	}
+	
+	// Resultado sempre ordenado por id: a pagina sai direto do bitmap e so os seus produtos sao lidos
+	@Transactional(readOnly = true )
+	public Page<ProductDTO> findByCategories(List<Long> all, List<Long> any, List<Long> none, Pageable pageable){
+		RoaringBitmap matches = categoryIndex.evaluate(all, any, none);
+		List<Long> ids = CategoryBitmapIndex.page(matches, pageable.getOffset(), pageable.getPageSize());
+		
+		List<Product> list = repository.findAllById(ids);
+		list.sort(Comparator.comparing(Product::getId));
+		
+		return new PageImpl<>(list.stream().map(x -> new ProductDTO(x)).collect(Collectors.toList()),
+				pageable, matches.getLongCardinality());
+	}
+	
+	public List<SuggestionDTO> suggest(String prefix, int limit){
+		return suggestionService.suggest(prefix, limit);
+	}
+	
+	// Busca tolerante a erros de digitacao, ordenada pela similaridade do nome
+	@Transactional(readOnly = true )
+	public Page<ProductDTO> search(String query, Pageable pageable){
+		List<TrigramIndex.Match> matches = fuzzySearchService.search(query);
+		int from = (int) Math.min(pageable.getOffset(), matches.size());
+		int to = Math.min(from + pageable.getPageSize(), matches.size());
+		
+		List<Long> ids = matches.subList(from, to).stream().map(x -> x.getId()).collect(Collectors.toList());
+		Map<Long, Product> products = repository.findAllById(ids).stream()
+				.collect(Collectors.toMap(Product::getId, Function.identity()));
+		
+		List<ProductDTO> content = ids.stream().filter(products::containsKey)
+				.map(x -> new ProductDTO(products.get(x))).collect(Collectors.toList());
+		return new PageImpl<>(content, pageable, matches.size());
+	}
+	
+	public SseEmitter subscribe(){
+		return changeStream.subscribe();
+	}
+	
+	@Transactional(readOnly = true )
+	public ChangesDTO<ProductDTO> findChanges(String since, int limit){
+		ChangeCursor cursor = ChangeCursor.parse(since);
+		Instant until = Instant.now().minusMillis(changesSafetyLagMs);
+		PageRequest page = PageRequest.of(0, limit);
+		
+		List<Product> changed = repository.findChanges(cursor.getTimestamp(), cursor.getId(), until, page);
+		List<Tombstone> deleted = tombstoneRepository.findChanges(Tombstone.PRODUCT, cursor.getTimestamp(),
+				cursor.getId(), until, page);
+		if (!changed.isEmpty()) {
+			// Inicializa as categorias de todos os produtos em uma unica consulta
+			repository.findProductsWithCategories(changed);
+		}
+		
+		return ChangeFeed.merge(cursor, limit, changed, x -> new ChangeCursor(x.getUpdatedAt(), x.getId()),
+				x -> new ProductDTO(x, x.getCategories()), deleted);
+	}
+	
+	// Intervalo pequeno demais para a faixa de precos vira 400 antes de consultar o histograma (e nao entra no cache)
+	@Cacheable(FACETS_CACHE)
+	@Transactional(readOnly = true )
+	public ProductFacetsDTO facets(Double minPrice, Double maxPrice, Double interval){
+		checkBucketCount(minPrice, maxPrice, interval);
+		ProductFacetsDTO facets = new ProductFacetsDTO(interval);
+		
+		for (Object[] row : repository.priceHistogram(lowerBound(minPrice), upperBound(maxPrice), interval)) {
+			double from = ((Number) row[0]).longValue() * interval;
+			facets.addPriceBucket(new PriceBucketDTO(from, from + interval, ((Number) row[1]).longValue()));
+		}
+		facets.setCategories(repository.categoryCounts(lowerBound(minPrice), upperBound(maxPrice)));
+		return facets;
+	}
+
+	// Leituras simultaneas do mesmo id compartilham uma consulta; a transacao e aberta pelo SingleFlight
 	public ProductDTO findById(Long id) {
-		Optional<Product> obj = repository.findById(id);
-		Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Id não encontrado"));
-		return new ProductDTO(entity, entity.getCategories());
+		return singleFlight.load(FIND_BY_ID_FLIGHT, id, () -> {
+			Optional<Product> obj = repository.findById(id);
+			Product entity = obj.orElseThrow(() -> new ResourceNotFoundException("Id não encontrado"));
+			return new ProductDTO(entity, entity.getCategories());
+		}, ProductDTO::new);
+	}
+	
+	// Antes dos caches: quem chegar depois da escrita nao pode pegar carona numa leitura antiga.
+	// As facetas so saem do cache depois do commit, senao uma leitura concorrente guardaria o estado anterior
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	@CacheEvict(value = FACETS_CACHE, allEntries = true)
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		singleFlight.forget(FIND_BY_ID_FLIGHT, event.getId());
+	}
+	
+	// Sem @Transactional: o download da origem nao deve segurar uma conexao do banco
+	public CachedImage findImage(Long id, Integer width) {
+		Product product = repository.findById(id).orElseThrow(() -> new ResourceNotFoundException("Id não encontrado"));
+		if (product.getImgUrl() == null || product.getImgUrl().isBlank()) {
+			throw new ResourceNotFoundException("Product " + id + " has no image");
+		}
+		return imageService.get(id, product.getImgUrl(), width);
 	}
 	
 	@Transactional
@@ -64,49 +245,167 @@ public class ProductService {
 		Product product = new Product();
 		copyDtoToEntity(dto, product);
 		product = repository.save(product);
+		outboxService.record(OutboxEvent.PRODUCT, product.getId(), ChangeType.INSERTED);
+		publisher.publishEvent(new ProductChangedEvent(product.getId(), ChangeType.INSERTED, Set.of(), product.getPrice()));
 	    return new ProductDTO(product);
 	}
 	
+	// expectedVersion: versao do If-Match; null atualiza sem conferir
+	@Transactional
+	public ProductDTO update(ProductDTO dto, Long id, Long expectedVersion) {
+		return applyUpdate(id, expectedVersion, product -> copyDtoToEntity(dto, product));
+	}
+	
+	// So os campos presentes no corpo; sem categories as associacoes atuais ficam como estao
+	@Transactional
+	public ProductDTO patch(ProductPatchDTO dto, Long id, Long expectedVersion) {
+		return applyUpdate(id, expectedVersion, product -> copyPatchToEntity(dto, product));
+	}
+	
 	@Transactional
-	public ProductDTO update(ProductDTO dto, Long id) {
+	public void delete( Long id) {
+		try {
+			repository.deleteCategoryLinks(id);
+			if (repository.deleteDirectlyById(id) == 0) {
+				throw new ResourceNotFoundException("Id not found " + id);
+			}
+			tombstoneRepository.save(new Tombstone(Tombstone.PRODUCT, id));
+			outboxService.record(OutboxEvent.PRODUCT, id, ChangeType.DELETED);
+			publisher.publishEvent(new ProductChangedEvent(id, ChangeType.DELETED));
+		}
+		catch(DataIntegrityViolationException e) {
+			throw new DatabaseException("Integrity Violation");
+		}
+		
+	}
+	
+	private void checkBucketCount(Double minPrice, Double maxPrice, Double interval) {
+		if (interval == null || !(interval > 0) || interval.isInfinite()) {
+			throw new InvalidFacetException("interval must be a positive number");
+		}
+		Object[] range = repository.priceRange(lowerBound(minPrice), upperBound(maxPrice)).get(0);
+		if (range[0] == null) {
+			return;
+		}
+		double buckets = Math.floor(((Number) range[1]).doubleValue() / interval)
+				- Math.floor(((Number) range[0]).doubleValue() / interval) + 1;
+		if (buckets > maxFacetBuckets) {
+			throw new InvalidFacetException("interval " + interval + " gives more than " + maxFacetBuckets + " price buckets");
+		}
+	}
+	
+	private static Double lowerBound(Double minPrice) {
+		return minPrice == null ? 0.0 : minPrice;
+	}
+	
+	private static Double upperBound(Double maxPrice) {
+		return maxPrice == null ? Double.MAX_VALUE : maxPrice;
+	}
+	
+	// changes devolve se as categorias mudaram
+	private ProductDTO applyUpdate(Long id, Long expectedVersion, Function<Product, Boolean> changes) {
 		try {
 		    @SuppressWarnings("deprecation")
 			Product product = repository.getOne(id);
-		    copyDtoToEntity(dto, product);
-		    return new ProductDTO(repository.save(product));
+		    if (expectedVersion != null && !expectedVersion.equals(product.getVersion())) {
+		    	throw new PreconditionFailedException("Version mismatch for id " + id);
+		    }
+		    ProductDTO before = new ProductDTO(product);
+		    boolean categoriesChanged = changes.apply(product);
+		    Set<String> fields = changedFields(before, product);
+		    if (categoriesChanged) {
+		    	fields.add("categories");
+		    }
+		    if (fields.isEmpty()) {
+		    	// Corpo igual ao estado atual: mesma versao e mesmo updatedAt, nada a sincronizar
+		    	return new ProductDTO(product);
+		    }
+		    // Alterar so as categorias nao suja a entidade, entao o carimbo de alteracao e explicito
+		    product.touch();
+		    // flush aqui: a versao nova vai no ETag e o conflito com outra transacao aparece ja nesta chamada
+		    product = repository.saveAndFlush(product);
+		    outboxService.record(OutboxEvent.PRODUCT, id, ChangeType.UPDATED);
+		    publisher.publishEvent(new ProductChangedEvent(id, ChangeType.UPDATED, fields, product.getPrice()));
+		    return new ProductDTO(product);
 		}
 		catch(EntityNotFoundException e) {
 			 throw new ResourceNotFoundException("Id not found " + id);
 		}
-		
+		catch(OptimisticLockingFailureException e) {
+			if (expectedVersion != null) {
+				throw new PreconditionFailedException("Version mismatch for id " + id);
+			}
+			throw e;
+		}
 	}
 	
-	public void delete( Long id) {
-		try {
-			repository.deleteById(id);
+	private static Set<String> changedFields(ProductDTO before, Product after) {
+		Set<String> fields = new TreeSet<>();
+		if (!Objects.equals(before.getName(), after.getName())) {
+			fields.add("name");
 		}
-		catch(EmptyResultDataAccessException e) {
-			 throw new ResourceNotFoundException("Id not found " + id);
+		if (!Objects.equals(before.getDescription(), after.getDescription())) {
+			fields.add("description");
 		}
-		catch(DataIntegrityViolationException e) {
-			throw new DatabaseException("Integrity Violation");
+		if (!Objects.equals(before.getPrice(), after.getPrice())) {
+			fields.add("price");
 		}
-		
+		if (!Objects.equals(before.getImgUrl(), after.getImgUrl())) {
+			fields.add("imgUrl");
+		}
+		if (!Objects.equals(before.getDate(), after.getDate())) {
+			fields.add("date");
+		}
+		return fields;
 	}
 	
-	private void copyDtoToEntity(ProductDTO dto, Product product) {
+	private boolean copyDtoToEntity(ProductDTO dto, Product product) {
 		product.setName(dto.getName());
 		product.setDescription(dto.getDescription());
 		product.setPrice(dto.getPrice());
 		product.setImgUrl(dto.getImgUrl());
 		product.setDate(dto.getDate());
 		
-		product.getCategories().clear();
+		return updateCategories(product, dto.getCategories());
+	}
+	
+	private boolean copyPatchToEntity(ProductPatchDTO dto, Product product) {
+		if (dto.getName() != null) {
+			product.setName(dto.getName());
+		}
+		if (dto.getDescription() != null) {
+			product.setDescription(dto.getDescription());
+		}
+		if (dto.getPrice() != null) {
+			product.setPrice(dto.getPrice());
+		}
+		if (dto.getImgUrl() != null) {
+			product.setImgUrl(dto.getImgUrl());
+		}
+		if (dto.getDate() != null) {
+			product.setDate(dto.getDate());
+		}
+		return dto.getCategories() != null && updateCategories(product, dto.getCategories());
+	}
+	
+	// Diferenca entre os conjuntos: o Hibernate so escreve as linhas de tb_product_category que mudaram,
+	// em vez de apagar e reinserir todas como acontece com clear()
+	private boolean updateCategories(Product product, List<CategoryDTO> categories) {
+		Set<Long> target = categories.stream().map(CategoryDTO::getId).collect(Collectors.toSet());
+		boolean changed = product.getCategories().removeIf(x -> !target.contains(x.getId()));
 		
-		for (CategoryDTO catDto : dto.getCategories()) {
-			@SuppressWarnings("deprecation")
-			Category category = catRepository.getOne(catDto.getId());
-			product.getCategories().add(category);
+		Set<Long> current = product.getCategories().stream().map(Category::getId).collect(Collectors.toSet());
+		List<Long> missing = target.stream().filter(x -> !current.contains(x)).collect(Collectors.toList());
+		if (!missing.isEmpty()) {
+			// Uma consulta para todas as categorias novas; id inexistente falha aqui e nao no flush
+			List<Category> found = catRepository.findAllById(missing);
+			if (found.size() < missing.size()) {
+				found.forEach(x -> missing.remove(x.getId()));
+				throw new ResourceNotFoundException("Category not found " + missing);
+			}
+			product.getCategories().addAll(found);
+			changed = true;
 		}
+		return changed;
 	}
 }
@@ -1,6 +1,7 @@
 package com.devsuperior.dscatalog.services;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.persistence.EntityNotFoundException;
@@ -9,7 +10,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -23,26 +23,41 @@ import com.devsuperior.dscatalog.dto.RoleDTO;
 import com.devsuperior.dscatalog.dto.UserDTO;
 import com.devsuperior.dscatalog.dto.UserInsertDTO;
 import com.devsuperior.dscatalog.dto.UserUpdateDTO;
+import com.devsuperior.dscatalog.entities.OutboxEvent;
 import com.devsuperior.dscatalog.entities.Role;
 import com.devsuperior.dscatalog.entities.User;
 import com.devsuperior.dscatalog.repositories.RoleRepository;
 import com.devsuperior.dscatalog.repositories.UserRepository;
+import com.devsuperior.dscatalog.services.cache.SingleFlight;
+import com.devsuperior.dscatalog.services.events.ChangeType;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.limits.ConcurrencyLimited;
+import com.devsuperior.dscatalog.services.outbox.OutboxService;
 
 @Service
+@ConcurrencyLimited("users")
 public class UserService implements UserDetailsService{
 	
 	private static Logger logger = LoggerFactory.getLogger(UserService.class);
+	
+	private static final String LOGIN_FLIGHT = "user.loadUserByUsername";
+	
 	@Autowired
 	private BCryptPasswordEncoder passwordEncoder;
     
 	@Autowired
 	private UserRepository repository;
 	
+	@Autowired
+	private OutboxService outboxService;
+	
 	@Autowired
 	private RoleRepository roleRepository;
 	
+	@Autowired
+	private SingleFlight singleFlight;
+	
 	@Transactional(readOnly = true )
 	public List<UserDTO> findAll(){
 		List<User> list = repository.findAll();
@@ -77,6 +92,7 @@ public class UserService implements UserDetailsService{
 		copyDtoToEntity(dto, user);
 		user.setPassword(passwordEncoder.encode(dto.getPassword()));
 		user = repository.save(user);
+		outboxService.record(OutboxEvent.USER, user.getId(), ChangeType.INSERTED);
 	    return new UserDTO(user);
 	}
 	
@@ -86,7 +102,9 @@ public class UserService implements UserDetailsService{
 		    @SuppressWarnings("deprecation")
 			User user = repository.getOne(id);
 		    copyDtoToEntity(dto, user);
-		    return new UserDTO(repository.save(user));
+		    user = repository.save(user);
+		    outboxService.record(OutboxEvent.USER, id, ChangeType.UPDATED);
+		    return new UserDTO(user);
 		}
 		catch(EntityNotFoundException e) {
 			 throw new ResourceNotFoundException("Id not found " + id);
@@ -94,12 +112,14 @@ public class UserService implements UserDetailsService{
 		
 	}
 	
+	@Transactional
 	public void delete( Long id) {
 		try {
-			repository.deleteById(id);
-		}
-		catch(EmptyResultDataAccessException e) {
-			 throw new ResourceNotFoundException("Id not found " + id);
+			repository.deleteRoleLinks(id);
+			if (repository.deleteDirectlyById(id) == 0) {
+				throw new ResourceNotFoundException("Id not found " + id);
+			}
+			outboxService.record(OutboxEvent.USER, id, ChangeType.DELETED);
 		}
 		catch(DataIntegrityViolationException e) {
 			throw new DatabaseException("Integrity Violation");
@@ -113,18 +133,27 @@ public class UserService implements UserDetailsService{
 		entity.setEmail(dto.getEmail());
 	
 		
-		entity.getRoles().clear();
-		for (RoleDTO roleDto : dto.getRoles()) {
-			@SuppressWarnings("deprecation")
-			Role role = roleRepository.getOne(roleDto.getId());
-			entity.getRoles().add(role);
+		// Todos os papeis em uma consulta; id inexistente falha aqui e nao no flush
+		Set<Long> roleIds = dto.getRoles().stream().map(RoleDTO::getId).collect(Collectors.toSet());
+		List<Role> roles = roleRepository.findAllById(roleIds);
+		if (roles.size() < roleIds.size()) {
+			roles.forEach(x -> roleIds.remove(x.getId()));
+			throw new ResourceNotFoundException("Role not found " + roleIds);
 		}
+		entity.getRoles().clear();
+		entity.getRoles().addAll(roles);
 	}
 
 	@Override
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		
-		User user = repository.findByEmail(username);
+		// Rajadas de login do mesmo usuario (ex.: varios clientes renovando token) fazem uma consulta so.
+		// O resultado compartilhado e uma copia imutavel, e cada chamador recebe a sua: o ProviderManager
+		// apaga a senha do principal autenticado, o que nao pode afetar quem ainda vai comparar a senha.
+		UserDetails user = singleFlight.load(LOGIN_FLIGHT, username, () -> {
+			User entity = repository.findByEmail(username);
+			return entity == null ? null : copyOf(entity);
+		});
 		
 		if(user == null) {
 			
@@ -133,6 +162,10 @@ public class UserService implements UserDetailsService{
 		}
 		
 		logger.info("User found " + username);
-		return user;
+		return copyOf(user);
+	}
+	
+	private static UserDetails copyOf(UserDetails user) {
+		return org.springframework.security.core.userdetails.User.withUserDetails(user).build();
 	}
 }
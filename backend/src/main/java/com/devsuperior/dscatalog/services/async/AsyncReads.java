@@ -0,0 +1,83 @@
+package com.devsuperior.dscatalog.services.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadContext;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadType;
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+/*
+ * Leituras do catalogo fora da thread do Tomcat: o handler devolve um CompletableFuture e a
+ * thread do servlet volta para o pool enquanto a consulta roda aqui. Quantas consultas rodam
+ * ao mesmo tempo e quantas esperam e definido por catalog.async.threads e catalog.async.queue.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.async.enabled", havingValue = "true")
+public class AsyncReads {
+
+	@Value("${catalog.async.threads:32}")
+	private int threads;
+
+	@Value("${catalog.async.queue:2000}")
+	private int queue;
+
+	@Value("${catalog.async.retry-after-seconds:1}")
+	private long retryAfterSeconds;
+
+	private ThreadPoolExecutor executor;
+
+	@PostConstruct
+	public void init() {
+		AtomicInteger count = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+				new ArrayBlockingQueue<>(queue), r -> {
+					Thread thread = new Thread(r, "catalog-read-" + count.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		executor.shutdownNow();
+	}
+
+	public <T> CompletableFuture<T> submit(Supplier<T> call) {
+		try {
+			// A particao (pool de conexoes) de leitura e da thread do Tomcat: aqui precisa ser definida de novo
+			return CompletableFuture.supplyAsync(() -> {
+				BulkheadContext.set(BulkheadType.READ);
+				try {
+					return call.get();
+				}
+				finally {
+					BulkheadContext.clear();
+				}
+			}, executor);
+		}
+		catch (RejectedExecutionException e) {
+			throw new ServiceOverloadedException("Read queue is full", retryAfterSeconds);
+		}
+	}
+
+	public int getActive() {
+		return executor.getActiveCount();
+	}
+
+	public int getQueued() {
+		return executor.getQueue().size();
+	}
+}
@@ -0,0 +1,108 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+
+/*
+ * Vagas de um tipo de requisicao nas threads do Tomcat, com fila curta e limitada.
+ * A soma de (vagas + fila) de todas as particoes nao deve passar de server.tomcat.threads.max:
+ * assim uma rajada de escritas nunca ocupa as threads que atendem as leituras.
+ */
+public class Bulkhead {
+
+	private final BulkheadType type;
+	private final int maxConcurrent;
+	private final int maxWaiting;
+	private final long maxWaitMs;
+	private final int poolSize;
+
+	private final Semaphore permits;
+	private final AtomicInteger waiting = new AtomicInteger();
+	private final LongAdder rejected = new LongAdder();
+
+	private HikariDataSource pool;
+
+	public Bulkhead(BulkheadType type, int maxConcurrent, int maxWaiting, long maxWaitMs, int poolSize) {
+		this.type = type;
+		this.maxConcurrent = maxConcurrent;
+		this.maxWaiting = maxWaiting;
+		this.maxWaitMs = maxWaitMs;
+		this.poolSize = poolSize;
+		this.permits = new Semaphore(maxConcurrent, true);
+	}
+
+	public boolean tryEnter() throws InterruptedException {
+		if (permits.tryAcquire()) {
+			return true;
+		}
+		if (waiting.incrementAndGet() > maxWaiting) {
+			waiting.decrementAndGet();
+			rejected.increment();
+			return false;
+		}
+		try {
+			if (permits.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+			rejected.increment();
+			return false;
+		}
+		finally {
+			waiting.decrementAndGet();
+		}
+	}
+
+	public void exit() {
+		permits.release();
+	}
+
+	public BulkheadType getType() {
+		return type;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public int getMaxWaiting() {
+		return maxWaiting;
+	}
+
+	public long getMaxWaitMs() {
+		return maxWaitMs;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+
+	public int getActive() {
+		return maxConcurrent - permits.availablePermits();
+	}
+
+	public int getWaiting() {
+		return waiting.get();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public HikariDataSource getPool() {
+		return pool;
+	}
+
+	public void setPool(HikariDataSource pool) {
+		this.pool = pool;
+	}
+
+	// null enquanto o pool ainda nao abriu a primeira conexao
+	public HikariPoolMXBean getPoolStats() {
+		return pool == null ? null : pool.getHikariPoolMXBean();
+	}
+}
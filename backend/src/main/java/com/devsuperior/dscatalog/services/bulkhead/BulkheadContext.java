@@ -0,0 +1,22 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+// Particao da requisicao em andamento nesta thread; sem valor (jobs, startup) usa o pool de escrita
+public final class BulkheadContext {
+
+	private static final ThreadLocal<BulkheadType> CURRENT = new ThreadLocal<>();
+
+	private BulkheadContext() {
+	}
+
+	public static BulkheadType current() {
+		return CURRENT.get();
+	}
+
+	public static void set(BulkheadType type) {
+		CURRENT.set(type);
+	}
+
+	public static void clear() {
+		CURRENT.remove();
+	}
+}
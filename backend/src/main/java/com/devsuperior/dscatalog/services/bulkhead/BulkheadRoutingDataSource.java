@@ -0,0 +1,25 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+import java.io.Closeable;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+// Cada particao tem o seu pool: conexoes presas em escritas lentas nao faltam para as leituras
+public class BulkheadRoutingDataSource extends AbstractRoutingDataSource implements Closeable {
+
+	private final Bulkheads bulkheads;
+
+	public BulkheadRoutingDataSource(Bulkheads bulkheads) {
+		this.bulkheads = bulkheads;
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		return BulkheadContext.current();
+	}
+
+	@Override
+	public void close() {
+		bulkheads.all().forEach(x -> x.getPool().close());
+	}
+}
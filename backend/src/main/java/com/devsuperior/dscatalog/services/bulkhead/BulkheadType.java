@@ -0,0 +1,54 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+// Valores padrao: vagas simultaneas, fila, espera maxima (ms) e conexoes do pool de cada particao
+public enum BulkheadType {
+
+	READ("read", 110, 20, 100, 10),
+	WRITE("write", 30, 10, 500, 5),
+	AUTH("auth", 20, 10, 500, 3);
+
+	private final String key;
+	private final int maxConcurrent;
+	private final int maxWaiting;
+	private final long maxWaitMs;
+	private final int poolSize;
+
+	BulkheadType(String key, int maxConcurrent, int maxWaiting, long maxWaitMs, int poolSize) {
+		this.key = key;
+		this.maxConcurrent = maxConcurrent;
+		this.maxWaiting = maxWaiting;
+		this.maxWaitMs = maxWaitMs;
+		this.poolSize = poolSize;
+	}
+
+	// Emissao de token, leituras (GET e consultas GraphQL) e o resto como escrita
+	public static BulkheadType classify(String method, String path) {
+		if (path.startsWith("/oauth/")) {
+			return AUTH;
+		}
+		if ("GET".equals(method) || "HEAD".equals(method) || "OPTIONS".equals(method) || path.equals("/graphql")) {
+			return READ;
+		}
+		return WRITE;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public int getMaxConcurrent() {
+		return maxConcurrent;
+	}
+
+	public int getMaxWaiting() {
+		return maxWaiting;
+	}
+
+	public long getMaxWaitMs() {
+		return maxWaitMs;
+	}
+
+	public int getPoolSize() {
+		return poolSize;
+	}
+}
@@ -0,0 +1,48 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.core.env.Environment;
+
+// Uma particao por tipo, configurada por catalog.bulkheads.<read|write|auth>.*
+public class Bulkheads {
+
+	private final Map<BulkheadType, Bulkhead> bulkheads = new EnumMap<>(BulkheadType.class);
+
+	public Bulkheads(Environment env) {
+		for (BulkheadType type : BulkheadType.values()) {
+			String prefix = "catalog.bulkheads." + type.getKey() + ".";
+			bulkheads.put(type, new Bulkhead(type,
+					maxConcurrent(env, type, prefix),
+					env.getProperty(prefix + "max-waiting", Integer.class, type.getMaxWaiting()),
+					env.getProperty(prefix + "max-wait-ms", Long.class, type.getMaxWaitMs()),
+					env.getProperty(prefix + "pool-size", Integer.class, type.getPoolSize())));
+		}
+	}
+
+	/*
+	 * Com catalog.async.enabled=true a vaga de leitura so volta quando a resposta assincrona termina, nao
+	 * quando a thread do Tomcat retorna: o teto de 110 limitaria o modo async. Ali quem segura a carga e o
+	 * AsyncReads (threads + fila, 503 quando cheio), entao o padrao passa a ser essa capacidade;
+	 * catalog.bulkheads.read.async-max-concurrent define outro valor.
+	 */
+	private static int maxConcurrent(Environment env, BulkheadType type, String prefix) {
+		if (type == BulkheadType.READ && env.getProperty("catalog.async.enabled", Boolean.class, false)) {
+			int capacity = env.getProperty("catalog.async.threads", Integer.class, 32)
+					+ env.getProperty("catalog.async.queue", Integer.class, 2000);
+			return env.getProperty(prefix + "async-max-concurrent", Integer.class, capacity);
+		}
+		return env.getProperty(prefix + "max-concurrent", Integer.class, type.getMaxConcurrent());
+	}
+
+	public Bulkhead get(BulkheadType type) {
+		return bulkheads.get(type);
+	}
+
+	public List<Bulkhead> all() {
+		return new ArrayList<>(bulkheads.values());
+	}
+}
@@ -0,0 +1,147 @@
+package com.devsuperior.dscatalog.services.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.events.CategoryChangedEvent;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * JSON pronto (e a versao gzip) de GET /products/{id}. Um acerto nao toca o banco nem o Jackson:
+ * e uma leitura no mapa e um contador. Limitado pelo total de bytes, saem os acessados ha mais tempo.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.detail-cache.enabled", havingValue = "true", matchIfMissing = true)
+public class ProductDetailCache {
+
+	@Autowired
+	private ProductService service;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${catalog.detail-cache.max-bytes:67108864}")
+	private long maxBytes;
+
+	@Value("${catalog.detail-cache.min-gzip-bytes:1024}")
+	private int minGzipBytes;
+
+	private final ConcurrentHashMap<Long, SerializedProduct> entries = new ConcurrentHashMap<>();
+	private final AtomicLong totalBytes = new AtomicLong();
+	private final AtomicLong clock = new AtomicLong();
+	// Incrementa a cada invalidacao: leitura do banco que cruzou com uma escrita nao entra no cache
+	private final AtomicLong generation = new AtomicLong();
+
+	public SerializedProduct get(Long id) {
+		SerializedProduct cached = entries.get(id);
+		if (cached != null) {
+			cached.touch(clock.incrementAndGet());
+			return cached;
+		}
+
+		long before = generation.get();
+		SerializedProduct loaded = serialize(service.findById(id));
+		loaded.touch(clock.incrementAndGet());
+		if (generation.get() == before) {
+			store(loaded);
+			// Invalidacao que caiu entre a conferencia e o put
+			if (generation.get() != before && entries.remove(id, loaded)) {
+				totalBytes.addAndGet(-loaded.size());
+			}
+		}
+		return loaded;
+	}
+
+	public long totalBytes() {
+		return totalBytes.get();
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		generation.incrementAndGet();
+		SerializedProduct removed = entries.remove(event.getId());
+		if (removed != null) {
+			totalBytes.addAndGet(-removed.size());
+		}
+	}
+
+	// O detalhe traz o nome das categorias: renomear ou apagar uma invalida tudo
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onCategoryChanged(CategoryChangedEvent event) {
+		generation.incrementAndGet();
+		for (Long id : new ArrayList<>(entries.keySet())) {
+			SerializedProduct removed = entries.remove(id);
+			if (removed != null) {
+				totalBytes.addAndGet(-removed.size());
+			}
+		}
+	}
+
+	private void store(SerializedProduct entry) {
+		SerializedProduct previous = entries.put(entry.getId(), entry);
+		totalBytes.addAndGet(entry.size() - (previous == null ? 0 : previous.size()));
+		if (totalBytes.get() > maxBytes) {
+			evict();
+		}
+	}
+
+	// Raro (so quando estoura o limite): ordena pelo ultimo acesso e desce ate 90% do limite
+	private synchronized void evict() {
+		if (totalBytes.get() <= maxBytes) {
+			return;
+		}
+		List<SerializedProduct> candidates = new ArrayList<>(entries.values());
+		candidates.sort(Comparator.comparingLong(SerializedProduct::getLastAccess));
+		long target = maxBytes / 10 * 9;
+		for (SerializedProduct candidate : candidates) {
+			if (totalBytes.get() <= target) {
+				break;
+			}
+			if (entries.remove(candidate.getId(), candidate)) {
+				totalBytes.addAndGet(-candidate.size());
+			}
+		}
+	}
+
+	private SerializedProduct serialize(ProductDTO dto) {
+		try {
+			byte[] json = objectMapper.writeValueAsBytes(dto);
+			return new SerializedProduct(dto.getId(), dto.getVersion(), json,
+					json.length >= minGzipBytes ? gzip(json) : null);
+		}
+		catch (JsonProcessingException e) {
+			throw new IllegalStateException("Could not serialize product " + dto.getId(), e);
+		}
+	}
+
+	private static byte[] gzip(byte[] bytes) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length / 2);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(bytes);
+		}
+		catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+		return out.toByteArray();
+	}
+}
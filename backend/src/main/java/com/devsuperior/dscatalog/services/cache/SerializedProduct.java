@@ -0,0 +1,46 @@
+package com.devsuperior.dscatalog.services.cache;
+
+public class SerializedProduct {
+
+	private final Long id;
+	private final Long version;
+	private final byte[] json;
+	// null quando o JSON e pequeno demais para compensar a compressao
+	private final byte[] gzip;
+	private volatile long lastAccess;
+
+	public SerializedProduct(Long id, Long version, byte[] json, byte[] gzip) {
+		this.id = id;
+		this.version = version;
+		this.json = json;
+		this.gzip = gzip;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public Long getVersion() {
+		return version;
+	}
+
+	public byte[] getJson() {
+		return json;
+	}
+
+	public byte[] getGzip() {
+		return gzip;
+	}
+
+	public long size() {
+		return json.length + (gzip == null ? 0 : gzip.length);
+	}
+
+	long getLastAccess() {
+		return lastAccess;
+	}
+
+	void touch(long tick) {
+		lastAccess = tick;
+	}
+}
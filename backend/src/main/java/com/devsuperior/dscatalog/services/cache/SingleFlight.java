@@ -0,0 +1,175 @@
+package com.devsuperior.dscatalog.services.cache;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/*
+ * Leituras concorrentes da mesma chave viram uma so: o primeiro chamador carrega, os demais
+ * esperam o mesmo future (ate catalog.single-flight.timeout-ms, depois carregam sozinhos).
+ * Quem espera nao esta em transacao, entao nao segura conexao do pool. Resultados mutaveis
+ * devem informar copy: cada chamador que esperou recebe a sua copia.
+ */
+@Component
+public class SingleFlight {
+
+	private static Logger logger = LoggerFactory.getLogger(SingleFlight.class);
+
+	@Autowired(required = false)
+	private PlatformTransactionManager transactionManager;
+
+	@Value("${catalog.single-flight.timeout-ms:2000}")
+	private long timeoutMs = 2000;
+
+	private final ConcurrentHashMap<String, Group> groups = new ConcurrentHashMap<>();
+
+	private TransactionTemplate readOnlyTransaction;
+
+	@PostConstruct
+	public void init() {
+		if (transactionManager != null) {
+			readOnlyTransaction = new TransactionTemplate(transactionManager);
+			readOnlyTransaction.setReadOnly(true);
+		}
+	}
+
+	public <V> V load(String group, Object key, Supplier<V> loader) {
+		return load(group, key, loader, UnaryOperator.identity());
+	}
+
+	// Executa loader em uma transacao somente leitura, a menos que outra chamada ja esteja carregando a chave
+	@SuppressWarnings("unchecked")
+	public <V> V load(String group, Object key, Supplier<V> loader, UnaryOperator<V> copy) {
+		if (TransactionSynchronizationManager.isActualTransactionActive()) {
+			// Dentro de uma transacao o resultado pode ter escritas ainda sem commit: nao e compartilhado
+			return loader.get();
+		}
+		Group flights = groups.computeIfAbsent(group, x -> new Group());
+		CompletableFuture<Object> future = new CompletableFuture<>();
+		CompletableFuture<Object> current = flights.inFlight.putIfAbsent(key, future);
+
+		if (current == null) {
+			flights.loads.increment();
+			try {
+				V value = readOnly(loader);
+				future.complete(value);
+				return value;
+			}
+			catch (RuntimeException | Error e) {
+				future.completeExceptionally(e);
+				throw e;
+			}
+			finally {
+				flights.inFlight.remove(key, future);
+			}
+		}
+
+		flights.coalesced.increment();
+		try {
+			return copy.apply((V) current.get(timeoutMs, TimeUnit.MILLISECONDS));
+		}
+		catch (TimeoutException e) {
+			flights.timeouts.increment();
+			return readOnly(loader);
+		}
+		catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException) {
+				throw (RuntimeException) e.getCause();
+			}
+			if (e.getCause() instanceof Error) {
+				throw (Error) e.getCause();
+			}
+			throw new IllegalStateException(e.getCause());
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("Interrupted while waiting for " + group + " " + key, e);
+		}
+	}
+
+	// Depois de uma escrita: novos chamadores nao devem se juntar a uma leitura que comecou antes dela
+	public void forget(String group, Object key) {
+		Group flights = groups.get(group);
+		if (flights != null) {
+			flights.inFlight.remove(key);
+		}
+	}
+
+	public Map<String, Stats> stats() {
+		Map<String, Stats> stats = new TreeMap<>();
+		groups.forEach((name, x) -> stats.put(name, new Stats(x.loads.sum(), x.coalesced.sum(), x.timeouts.sum())));
+		return stats;
+	}
+
+	@Scheduled(fixedDelayString = "${catalog.single-flight.report-interval-ms:60000}")
+	public void report() {
+		groups.forEach((name, x) -> {
+			long coalesced = x.coalesced.sum();
+			if (coalesced != x.reported) {
+				x.reported = coalesced;
+				logger.info("Single flight " + name + ": " + x.loads.sum() + " loads, " + coalesced
+						+ " coalesced, " + x.timeouts.sum() + " timeouts");
+			}
+		});
+	}
+
+	private <V> V readOnly(Supplier<V> loader) {
+		if (readOnlyTransaction == null) {
+			return loader.get();
+		}
+		return readOnlyTransaction.execute(status -> loader.get());
+	}
+
+	private static class Group {
+
+		final ConcurrentHashMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+		final LongAdder loads = new LongAdder();
+		final LongAdder coalesced = new LongAdder();
+		final LongAdder timeouts = new LongAdder();
+		volatile long reported;
+	}
+
+	public static class Stats {
+
+		private final long loads;
+		private final long coalesced;
+		private final long timeouts;
+
+		public Stats(long loads, long coalesced, long timeouts) {
+			this.loads = loads;
+			this.coalesced = coalesced;
+			this.timeouts = timeouts;
+		}
+
+		public long getLoads() {
+			return loads;
+		}
+
+		public long getCoalesced() {
+			return coalesced;
+		}
+
+		public long getTimeouts() {
+			return timeouts;
+		}
+	}
+}
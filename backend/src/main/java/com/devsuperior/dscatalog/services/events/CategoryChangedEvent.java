@@ -0,0 +1,21 @@
+package com.devsuperior.dscatalog.services.events;
+
+public class CategoryChangedEvent {
+
+	private final Long id;
+	private final ChangeType type;
+
+	public CategoryChangedEvent(Long id, ChangeType type) {
+		this.id = id;
+		this.type = type;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+}
@@ -0,0 +1,5 @@
+package com.devsuperior.dscatalog.services.events;
+
+public enum ChangeType {
+	INSERTED, UPDATED, DELETED
+}
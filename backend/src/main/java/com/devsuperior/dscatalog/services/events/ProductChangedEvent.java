@@ -0,0 +1,40 @@
+package com.devsuperior.dscatalog.services.events;
+
+import java.util.Set;
+
+public class ProductChangedEvent {
+
+	private final Long id;
+	private final ChangeType type;
+	// Vazio quando nao se sabe o que mudou (insercao, escrita de outra instancia)
+	private final Set<String> changedFields;
+	private final Double price;
+
+	public ProductChangedEvent(Long id, ChangeType type) {
+		this(id, type, Set.of(), null);
+	}
+
+	public ProductChangedEvent(Long id, ChangeType type, Set<String> changedFields, Double price) {
+		this.id = id;
+		this.type = type;
+		this.changedFields = changedFields;
+		this.price = price;
+	}
+
+	public Long getId() {
+		return id;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+	public Set<String> getChangedFields() {
+		return changedFields;
+	}
+
+	public Double getPrice() {
+		return price;
+	}
+
+}
@@ -0,0 +1,11 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class ImageUnavailableException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public ImageUnavailableException(String msg) {
+		super(msg);
+	}
+     
+}
@@ -0,0 +1,11 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class InvalidCursorException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidCursorException(String msg) {
+		super(msg);
+	}
+     
+}
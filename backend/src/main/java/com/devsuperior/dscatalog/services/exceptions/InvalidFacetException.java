@@ -0,0 +1,11 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class InvalidFacetException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	public InvalidFacetException(String msg) {
+		super(msg);
+	}
+     
+}
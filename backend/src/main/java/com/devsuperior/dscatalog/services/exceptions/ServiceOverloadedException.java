@@ -0,0 +1,18 @@
+package com.devsuperior.dscatalog.services.exceptions;
+
+public class ServiceOverloadedException extends RuntimeException{
+
+	private static final long serialVersionUID = 1L;
+	
+	private final long retryAfterSeconds;
+	
+	public ServiceOverloadedException(String msg, long retryAfterSeconds) {
+		super(msg);
+		this.retryAfterSeconds = retryAfterSeconds;
+	}
+
+	public long getRetryAfterSeconds() {
+		return retryAfterSeconds;
+	}
+     
+}
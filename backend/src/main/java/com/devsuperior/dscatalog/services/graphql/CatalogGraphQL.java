@@ -0,0 +1,133 @@
+package com.devsuperior.dscatalog.services.graphql;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import javax.annotation.PostConstruct;
+
+import org.dataloader.DataLoader;
+import org.dataloader.DataLoaderRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.PageDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.UserService;
+
+import graphql.ExecutionInput;
+import graphql.GraphQL;
+import graphql.analysis.MaxQueryComplexityInstrumentation;
+import graphql.analysis.MaxQueryDepthInstrumentation;
+import graphql.execution.instrumentation.ChainedInstrumentation;
+import graphql.execution.instrumentation.dataloader.DataLoaderDispatcherInstrumentation;
+import graphql.schema.DataFetchingEnvironment;
+import graphql.schema.GraphQLSchema;
+import graphql.schema.idl.RuntimeWiring;
+import graphql.schema.idl.SchemaGenerator;
+import graphql.schema.idl.SchemaParser;
+import graphql.schema.idl.TypeDefinitionRegistry;
+
+/*
+ * Leitura via GraphQL sobre os mesmos services do REST (schema em graphql/catalog.graphqls).
+ * Cada requisicao tem os seus data loaders: o cache deles vive so ate o fim da resposta.
+ */
+@Component
+public class CatalogGraphQL {
+
+	private static final String PRODUCT_CATEGORIES = "productCategories";
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private UserService userService;
+
+	@Autowired
+	private ProductCategoryLoader productCategoryLoader;
+
+	@Value("${catalog.graphql.max-depth:6}")
+	private int maxDepth;
+
+	@Value("${catalog.graphql.max-cost:2000}")
+	private int maxCost;
+
+	@Value("${catalog.graphql.max-page-size:100}")
+	private int maxPageSize;
+
+	private GraphQL graphQL;
+
+	@PostConstruct
+	public void init() throws IOException {
+		TypeDefinitionRegistry types;
+		try (Reader reader = new InputStreamReader(new ClassPathResource("graphql/catalog.graphqls").getInputStream(),
+				StandardCharsets.UTF_8)) {
+			types = new SchemaParser().parse(reader);
+		}
+
+		RuntimeWiring wiring = RuntimeWiring.newRuntimeWiring()
+				.type("Query", builder -> builder
+						.dataFetcher("products", env -> PageDTO.of(productService.findAllPaged(
+								env.getArgument("minPrice"), env.getArgument("maxPrice"), pageRequest(env))))
+						.dataFetcher("product", env -> productService.findById(id(env)))
+						.dataFetcher("categories", env -> PageDTO.of(categoryService.findAllPaged(pageRequest(env))))
+						.dataFetcher("category", env -> categoryService.findById(id(env)))
+						.dataFetcher("users", env -> PageDTO.of(userService.findAllPaged(pageRequest(env))))
+						.dataFetcher("user", env -> userService.findById(id(env))))
+				.type("Product", builder -> builder
+						.dataFetcher("categories", env -> {
+							ProductDTO product = env.getSource();
+							DataLoader<Long, List<CategoryDTO>> loader = env.getDataLoader(PRODUCT_CATEGORIES);
+							return loader.load(product.getId());
+						}))
+				.build();
+		GraphQLSchema schema = new SchemaGenerator().makeExecutableSchema(types, wiring);
+
+		graphQL = GraphQL.newGraphQL(schema)
+				.instrumentation(new ChainedInstrumentation(List.of(
+						new MaxQueryDepthInstrumentation(maxDepth),
+						new MaxQueryComplexityInstrumentation(maxCost, new QueryCostCalculator(maxPageSize)),
+						new DataLoaderDispatcherInstrumentation())))
+				.build();
+	}
+
+	public Map<String, Object> execute(String query, String operationName, Map<String, Object> variables) {
+		DataLoaderRegistry registry = new DataLoaderRegistry();
+		registry.register(PRODUCT_CATEGORIES, DataLoader.<Long, List<CategoryDTO>>newMappedDataLoader(
+				ids -> CompletableFuture.completedFuture(productCategoryLoader.load(ids))));
+
+		ExecutionInput input = ExecutionInput.newExecutionInput()
+				.query(query)
+				.operationName(operationName)
+				.variables(variables == null ? Map.of() : variables)
+				.dataLoaderRegistry(registry)
+				.build();
+		return graphQL.execute(input).toSpecification();
+	}
+
+	private PageRequest pageRequest(DataFetchingEnvironment env) {
+		Integer page = env.getArgument("page");
+		Integer size = env.getArgument("size");
+		// Argumentos passados explicitamente como null nao recebem o valor padrao do schema
+		int number = page == null ? 0 : Math.max(0, page);
+		int pageSize = size == null ? 12 : Math.max(1, Math.min(size, maxPageSize));
+		return PageRequest.of(number, pageSize);
+	}
+
+	private static Long id(DataFetchingEnvironment env) {
+		return Long.valueOf(env.<String>getArgument("id"));
+	}
+}
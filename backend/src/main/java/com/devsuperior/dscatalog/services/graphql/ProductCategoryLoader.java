@@ -0,0 +1,40 @@
+package com.devsuperior.dscatalog.services.graphql;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+
+// Categorias de todos os produtos de uma resposta em uma unica consulta
+@Component
+public class ProductCategoryLoader {
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	public Map<Long, List<CategoryDTO>> load(Set<Long> productIds) {
+		Map<Long, List<CategoryDTO>> result = new HashMap<>();
+		if (productIds.isEmpty()) {
+			return result;
+		}
+		for (Long id : productIds) {
+			result.put(id, new ArrayList<>());
+		}
+
+		String placeholders = String.join(",", Collections.nCopies(productIds.size(), "?"));
+		jdbcTemplate.query("SELECT pc.product_id, c.id, c.name FROM tb_product_category pc "
+				+ "INNER JOIN tb_category c ON c.id = pc.category_id "
+				+ "WHERE pc.product_id IN (" + placeholders + ") ORDER BY c.id", rs -> {
+					result.get(rs.getLong(1)).add(new CategoryDTO(rs.getLong(2), rs.getString(3)));
+				}, productIds.toArray());
+		return result;
+	}
+}
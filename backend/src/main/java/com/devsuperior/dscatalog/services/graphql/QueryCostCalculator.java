@@ -0,0 +1,27 @@
+package com.devsuperior.dscatalog.services.graphql;
+
+import graphql.analysis.FieldComplexityCalculator;
+import graphql.analysis.FieldComplexityEnvironment;
+
+/*
+ * Custo = 1 por campo; campos paginados multiplicam o custo dos filhos pelo tamanho da pagina.
+ * Listas carregadas em lote (ex.: categorias) nao multiplicam: custam uma consulta por resposta.
+ */
+public class QueryCostCalculator implements FieldComplexityCalculator {
+
+	private final int maxPageSize;
+
+	public QueryCostCalculator(int maxPageSize) {
+		this.maxPageSize = maxPageSize;
+	}
+
+	@Override
+	public int calculate(FieldComplexityEnvironment environment, int childComplexity) {
+		Object size = environment.getArguments().get("size");
+		if (size instanceof Integer) {
+			int pageSize = Math.max(1, Math.min((Integer) size, maxPageSize));
+			return 1 + pageSize * Math.max(childComplexity, 1);
+		}
+		return 1 + childComplexity;
+	}
+}
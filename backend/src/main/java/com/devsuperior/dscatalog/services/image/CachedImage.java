@@ -0,0 +1,50 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Path;
+
+public class CachedImage {
+
+	private final String key;
+	private final Path path;
+	private final MappedByteBuffer buffer;
+	private final String format;
+
+	public CachedImage(String key, Path path, MappedByteBuffer buffer, String format) {
+		this.key = key;
+		this.path = path;
+		this.buffer = buffer;
+		this.format = format;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public Path getPath() {
+		return path;
+	}
+
+	// Copia so do cursor: cada leitor anda no seu proprio, sem tocar nos bytes
+	public ByteBuffer getBuffer() {
+		return buffer.duplicate();
+	}
+
+	public long getLength() {
+		return buffer.capacity();
+	}
+
+	public String getContentType() {
+		return "png".equals(format) ? "image/png" : "image/jpeg";
+	}
+
+	// O conteudo de uma chave nunca muda (id, largura e hash da URL de origem)
+	public String getETag() {
+		return "\"" + key + "\"";
+	}
+
+	String getFormat() {
+		return format;
+	}
+}
@@ -0,0 +1,50 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+public class HttpImageOrigin implements ImageOrigin {
+
+	private final HttpClient client;
+	private final Duration timeout;
+	private final int maxBytes;
+
+	public HttpImageOrigin(Duration timeout, int maxBytes) {
+		this.client = HttpClient.newBuilder().connectTimeout(timeout).followRedirects(HttpClient.Redirect.NORMAL)
+				.build();
+		this.timeout = timeout;
+		this.maxBytes = maxBytes;
+	}
+
+	@Override
+	public byte[] fetch(String url) throws IOException {
+		HttpRequest request = HttpRequest.newBuilder(URI.create(url)).timeout(timeout).GET().build();
+		try {
+			HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+			// Fechar o stream antes do fim aborta o download do resto do corpo
+			try (InputStream body = response.body()) {
+				if (response.statusCode() != 200) {
+					throw new IOException("Origin returned " + response.statusCode() + " for " + url);
+				}
+				long declared = response.headers().firstValueAsLong("Content-Length").orElse(-1L);
+				if (declared > maxBytes) {
+					throw new IOException("Origin image too large (" + declared + " bytes) for " + url);
+				}
+				byte[] bytes = body.readNBytes(maxBytes + 1);
+				if (bytes.length > maxBytes) {
+					throw new IOException("Origin image larger than " + maxBytes + " bytes for " + url);
+				}
+				return bytes;
+			}
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted fetching " + url, e);
+		}
+	}
+}
@@ -0,0 +1,153 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/*
+ * Variantes de imagem em arquivos no disco, mapeados em memoria (o conteudo fica no page cache do SO,
+ * fora do heap). Remove as menos usadas quando o total passa de maxBytes.
+ * O arquivo removido so e apagado depois de deleteGraceMs: com sendfile o Tomcat abre o arquivo pelo
+ * caminho depois que o servlet retorna, e uma resposta em andamento nao pode perder o arquivo no meio.
+ */
+public class ImageCache {
+
+	private static Logger logger = LoggerFactory.getLogger(ImageCache.class);
+
+	private final Path directory;
+	private final long maxBytes;
+	private final long deleteGraceMs;
+
+	// accessOrder = true: a iteracao comeca pela menos usada recentemente
+	private final LinkedHashMap<String, CachedImage> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private long totalBytes;
+
+	// Arquivos que sairam do cache -> instante a partir do qual podem ser apagados
+	private final LinkedHashMap<Path, Long> retired = new LinkedHashMap<>();
+
+	public ImageCache(Path directory, long maxBytes, long deleteGraceMs) throws IOException {
+		this.directory = directory;
+		this.maxBytes = maxBytes;
+		this.deleteGraceMs = deleteGraceMs;
+		Files.createDirectories(directory);
+		reload();
+	}
+
+	public synchronized CachedImage get(String key) {
+		return entries.get(key);
+	}
+
+	public CachedImage put(String key, byte[] bytes, String format) throws IOException {
+		// Grava em arquivo temporario e renomeia: nenhum leitor ve um arquivo pela metade
+		Path tmp = Files.createTempFile(directory, key, ".tmp");
+		Files.write(tmp, bytes);
+		Path target = directory.resolve(key + "." + format);
+		Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		CachedImage image = map(key, target, format);
+
+		synchronized (this) {
+			// O caminho voltou a ser usado: nao pode ser apagado pela remocao anterior
+			retired.remove(target);
+			CachedImage previous = entries.put(key, image);
+			if (previous != null) {
+				totalBytes -= previous.getLength();
+				if (!previous.getPath().equals(target)) {
+					retire(previous.getPath());
+				}
+			}
+			totalBytes += image.getLength();
+			evict();
+			deleteRetired();
+		}
+		return image;
+	}
+
+	public synchronized long totalBytes() {
+		return totalBytes;
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	private void evict() {
+		Iterator<Map.Entry<String, CachedImage>> it = entries.entrySet().iterator();
+		// A entrada recem-inserida (a ultima) fica mesmo se sozinha passar do limite
+		while (totalBytes > maxBytes && entries.size() > 1 && it.hasNext()) {
+			CachedImage eldest = it.next().getValue();
+			it.remove();
+			totalBytes -= eldest.getLength();
+			retire(eldest.getPath());
+		}
+	}
+
+	private void retire(Path path) {
+		retired.put(path, System.currentTimeMillis() + deleteGraceMs);
+	}
+
+	// Em ordem de remocao, entao o primeiro ainda no prazo encerra a varredura
+	private void deleteRetired() {
+		long now = System.currentTimeMillis();
+		Iterator<Map.Entry<Path, Long>> it = retired.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Path, Long> entry = it.next();
+			if (entry.getValue() > now) {
+				break;
+			}
+			it.remove();
+			try {
+				Files.deleteIfExists(entry.getKey());
+			}
+			catch (IOException e) {
+				logger.warn("Could not delete evicted image " + entry.getKey(), e);
+			}
+		}
+	}
+
+	// Reaproveita o que ficou no disco de execucoes anteriores, os mais antigos primeiro na fila LRU
+	private void reload() throws IOException {
+		List<Path> files;
+		try (Stream<Path> stream = Files.list(directory)) {
+			files = stream.filter(Files::isRegularFile).collect(Collectors.toList());
+		}
+		files.sort(Comparator.comparingLong(x -> x.toFile().lastModified()));
+
+		for (Path file : files) {
+			String name = file.getFileName().toString();
+			int dot = name.lastIndexOf('.');
+			String format = dot < 0 ? "" : name.substring(dot + 1);
+			if (!"png".equals(format) && !"jpg".equals(format)) {
+				Files.deleteIfExists(file);
+				continue;
+			}
+			String key = name.substring(0, dot);
+			CachedImage image = map(key, file, format);
+			entries.put(key, image);
+			totalBytes += image.getLength();
+		}
+		evict();
+		deleteRetired();
+	}
+
+	private static CachedImage map(String key, Path path, String format) throws IOException {
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			// O mapeamento continua valido depois de fechar o canal
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			return new CachedImage(key, path, buffer, format);
+		}
+	}
+}
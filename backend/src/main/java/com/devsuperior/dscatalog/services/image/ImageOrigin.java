@@ -0,0 +1,12 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.io.IOException;
+
+/*
+ * De onde vem a imagem original (Product.imgUrl). A implementacao padrao busca por HTTP;
+ * com catalog.images.origin diferente de "http", outro bean ImageOrigin substitui (ex.: bucket, diretorio local).
+ */
+public interface ImageOrigin {
+
+	byte[] fetch(String url) throws IOException;
+}
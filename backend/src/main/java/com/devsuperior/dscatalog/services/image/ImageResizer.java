@@ -0,0 +1,63 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+public final class ImageResizer {
+
+	private ImageResizer() {
+	}
+
+	// Reduz para a largura pedida mantendo a proporcao; nunca amplia. Sem transparencia sai JPEG, com transparencia PNG
+	public static Encoded resize(byte[] original, int width) throws IOException {
+		BufferedImage source = ImageIO.read(new ByteArrayInputStream(original));
+		if (source == null) {
+			throw new IOException("Unsupported image format");
+		}
+		int targetWidth = Math.min(width, source.getWidth());
+		int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+		boolean alpha = source.getColorModel().hasAlpha();
+
+		BufferedImage target = new BufferedImage(targetWidth, targetHeight,
+				alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = target.createGraphics();
+		try {
+			g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+			g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+			g.drawImage(source, 0, 0, targetWidth, targetHeight, null);
+		}
+		finally {
+			g.dispose();
+		}
+
+		String format = alpha ? "png" : "jpg";
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(target, format, out);
+		return new Encoded(out.toByteArray(), format);
+	}
+
+	public static class Encoded {
+
+		private final byte[] bytes;
+		private final String format;
+
+		public Encoded(byte[] bytes, String format) {
+			this.bytes = bytes;
+			this.format = format;
+		}
+
+		public byte[] getBytes() {
+			return bytes;
+		}
+
+		public String getFormat() {
+			return format;
+		}
+	}
+}
@@ -0,0 +1,125 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.devsuperior.dscatalog.services.exceptions.ImageUnavailableException;
+
+@Service
+public class ProductImageService {
+
+	@Autowired
+	private ImageOrigin origin;
+
+	@Value("${catalog.images.cache-dir}")
+	private String cacheDir;
+
+	@Value("${catalog.images.max-bytes:268435456}")
+	private long maxBytes;
+
+	// Larguras servidas: o pedido e arredondado para cima, limitando o numero de variantes por produto
+	@Value("${catalog.images.widths:64,128,256,512,1024}")
+	private int[] widths;
+
+	@Value("${catalog.images.delete-grace-ms:60000}")
+	private long deleteGraceMs;
+
+	private ImageCache cache;
+
+	// Variantes sendo geradas agora: pedidos simultaneos da mesma chave esperam o mesmo download
+	private final ConcurrentHashMap<String, CompletableFuture<CachedImage>> inFlight = new ConcurrentHashMap<>();
+
+	@PostConstruct
+	public void init() throws IOException {
+		widths = widths.clone();
+		Arrays.sort(widths);
+		cache = new ImageCache(Paths.get(cacheDir), maxBytes, deleteGraceMs);
+	}
+
+	public CachedImage get(Long productId, String imgUrl, Integer width) {
+		int target = snapWidth(width);
+		String key = productId + "-" + target + "-" + hash(imgUrl);
+
+		CachedImage image = cache.get(key);
+		if (image != null) {
+			return image;
+		}
+
+		CompletableFuture<CachedImage> future = new CompletableFuture<>();
+		CompletableFuture<CachedImage> current = inFlight.putIfAbsent(key, future);
+		if (current != null) {
+			// Sem timeout proprio: o download ja e limitado por catalog.images.origin-timeout-ms
+			try {
+				return current.join();
+			}
+			catch (CompletionException e) {
+				throw (RuntimeException) e.getCause();
+			}
+		}
+		try {
+			// Outra chamada pode ter terminado entre o get e o putIfAbsent
+			image = cache.get(key);
+			if (image == null) {
+				image = load(productId, imgUrl, target, key);
+			}
+			future.complete(image);
+			return image;
+		}
+		catch (RuntimeException e) {
+			future.completeExceptionally(e);
+			throw e;
+		}
+		finally {
+			inFlight.remove(key, future);
+		}
+	}
+
+	private CachedImage load(Long productId, String imgUrl, int target, String key) {
+		try {
+			ImageResizer.Encoded encoded = ImageResizer.resize(origin.fetch(imgUrl), target);
+			return cache.put(key, encoded.getBytes(), encoded.getFormat());
+		}
+		catch (IOException | RuntimeException e) {
+			throw new ImageUnavailableException("Image unavailable for product " + productId);
+		}
+	}
+
+	int snapWidth(Integer width) {
+		if (width != null) {
+			for (int w : widths) {
+				if (w >= width) {
+					return w;
+				}
+			}
+		}
+		return widths[widths.length - 1];
+	}
+
+	// A URL entra na chave: trocar a imagem do produto gera variantes novas, e as antigas saem pelo LRU
+	private static String hash(String url) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(url.getBytes(StandardCharsets.UTF_8));
+			StringBuilder sb = new StringBuilder();
+			for (int i = 0; i < 8; i++) {
+				sb.append(String.format("%02x", digest[i]));
+			}
+			return sb.toString();
+		}
+		catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
@@ -0,0 +1,227 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+/*
+ * Bitmap comprimido (Roaring) com os ids dos produtos de cada categoria.
+ * Os bitmaps publicados nunca sao alterados: cada lote de escritas clona apenas os que mudaram.
+ * Como no ProductSnapshotService, o commit so enfileira o id e o worker le as associacoes do lote.
+ */
+@Component
+public class CategoryBitmapIndex {
+
+	private static Logger logger = LoggerFactory.getLogger(CategoryBitmapIndex.class);
+
+	private static final int BATCH_SIZE = 500;
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${catalog.indexes.deferred-warm-up:false}")
+	private boolean deferredWarmUp;
+
+	private volatile State state = new State(new HashMap<>(), new RoaringBitmap());
+
+	private final IndexWarmUp warmUp = new IndexWarmUp(this::rebuild);
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private ThreadPoolTaskExecutor worker;
+
+	@PostConstruct
+	public void init() {
+		worker = new ThreadPoolTaskExecutor();
+		worker.setCorePoolSize(1);
+		worker.setMaxPoolSize(1);
+		worker.setThreadNamePrefix("category-bitmap-");
+		worker.setDaemon(true);
+		worker.initialize();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		worker.shutdown();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (deferredWarmUp) {
+			worker.execute(warmUp::await);
+		}
+		else {
+			warmUp.await();
+		}
+	}
+
+	public synchronized void rebuild() {
+		long start = System.currentTimeMillis();
+		Map<Long, RoaringBitmap> categories = new HashMap<>();
+		RoaringBitmap products = new RoaringBitmap();
+
+		jdbcTemplate.query("SELECT id FROM tb_product", rs -> {
+			products.add(toInt(rs.getLong(1)));
+		});
+		jdbcTemplate.query("SELECT product_id, category_id FROM tb_product_category", rs -> {
+			categories.computeIfAbsent(rs.getLong(2), x -> new RoaringBitmap()).add(toInt(rs.getLong(1)));
+		});
+
+		categories.values().forEach(RoaringBitmap::runOptimize);
+		products.runOptimize();
+		state = new State(categories, products);
+		logger.info("Category bitmap index built for " + products.getCardinality() + " products in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		pending.add(event.getId());
+		if (scheduled.compareAndSet(false, true)) {
+			worker.execute(this::drain);
+		}
+	}
+
+	// Quem chegar depois de scheduled=false agenda outra execucao, entao nenhum id fica para tras
+	private void drain() {
+		scheduled.set(false);
+		try {
+			while (!pending.isEmpty()) {
+				List<Long> batch = new ArrayList<>(BATCH_SIZE);
+				for (Iterator<Long> it = pending.iterator(); it.hasNext() && batch.size() < BATCH_SIZE;) {
+					batch.add(it.next());
+					it.remove();
+				}
+				applyBatch(batch);
+			}
+		}
+		catch (RuntimeException e) {
+			logger.error("Category bitmap update failed, rebuilding", e);
+			rebuild();
+		}
+	}
+
+	// Le o estado atual do banco: id que nao existe mais saiu do catalogo, independente da ordem dos eventos
+	synchronized void applyBatch(List<Long> ids) {
+		String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+		RoaringBitmap changed = new RoaringBitmap();
+		ids.forEach(x -> changed.add(toInt(x)));
+		RoaringBitmap existing = new RoaringBitmap();
+		jdbcTemplate.query("SELECT id FROM tb_product WHERE id IN (" + in + ")", rs -> {
+			existing.add(toInt(rs.getLong(1)));
+		}, ids.toArray());
+		Map<Long, RoaringBitmap> members = new HashMap<>();
+		jdbcTemplate.query("SELECT product_id, category_id FROM tb_product_category WHERE product_id IN (" + in + ")",
+				rs -> {
+					members.computeIfAbsent(rs.getLong(2), x -> new RoaringBitmap()).add(toInt(rs.getLong(1)));
+				}, ids.toArray());
+
+		State current = state;
+		Map<Long, RoaringBitmap> categories = new HashMap<>(current.categories);
+		for (Map.Entry<Long, RoaringBitmap> entry : current.categories.entrySet()) {
+			RoaringBitmap wanted = members.remove(entry.getKey());
+			if (wanted == null) {
+				wanted = new RoaringBitmap();
+			}
+			if (!RoaringBitmap.and(entry.getValue(), changed).equals(wanted)) {
+				RoaringBitmap bitmap = RoaringBitmap.andNot(entry.getValue(), changed);
+				bitmap.or(wanted);
+				categories.put(entry.getKey(), bitmap);
+			}
+		}
+		// Sobram as categorias que ainda nao tinham nenhum produto
+		categories.putAll(members);
+
+		RoaringBitmap products = RoaringBitmap.andNot(current.products, changed);
+		products.or(existing);
+		state = new State(categories, products);
+	}
+
+	// all: AND entre as categorias; any: OR entre as categorias; none: exclui as categorias
+	public RoaringBitmap evaluate(Collection<Long> all, Collection<Long> any, Collection<Long> none) {
+		warmUp.await();
+		State current = state;
+		RoaringBitmap result = current.products;
+
+		if (all != null) {
+			for (Long categoryId : all) {
+				result = RoaringBitmap.and(result, current.get(categoryId));
+			}
+		}
+		if (any != null && !any.isEmpty()) {
+			RoaringBitmap union = new RoaringBitmap();
+			for (Long categoryId : any) {
+				union.or(current.get(categoryId));
+			}
+			result = RoaringBitmap.and(result, union);
+		}
+		if (none != null) {
+			for (Long categoryId : none) {
+				result = RoaringBitmap.andNot(result, current.get(categoryId));
+			}
+		}
+		return result;
+	}
+
+	// Ids da pagina em ordem crescente, pulando o offset pelo rank do bitmap
+	public static List<Long> page(RoaringBitmap bitmap, long offset, int size) {
+		List<Long> ids = new ArrayList<>(size);
+		if (offset >= bitmap.getLongCardinality()) {
+			return ids;
+		}
+		PeekableIntIterator it = bitmap.getIntIterator();
+		it.advanceIfNeeded(bitmap.select((int) offset));
+		while (it.hasNext() && ids.size() < size) {
+			ids.add((long) it.next());
+		}
+		return ids;
+	}
+
+	private static int toInt(long id) {
+		if (id > Integer.MAX_VALUE) {
+			throw new IllegalStateException("Product id out of bitmap range: " + id);
+		}
+		return (int) id;
+	}
+
+	private static class State {
+
+		final Map<Long, RoaringBitmap> categories;
+		final RoaringBitmap products;
+
+		State(Map<Long, RoaringBitmap> categories, RoaringBitmap products) {
+			this.categories = categories;
+			this.products = products;
+		}
+
+		RoaringBitmap get(Long categoryId) {
+			RoaringBitmap bitmap = categories.get(categoryId);
+			return bitmap == null ? new RoaringBitmap() : bitmap;
+		}
+	}
+}
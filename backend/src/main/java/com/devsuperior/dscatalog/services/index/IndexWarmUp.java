@@ -0,0 +1,29 @@
+package com.devsuperior.dscatalog.services.index;
+
+/*
+ * Primeira construcao de um indice em memoria. Com catalog.indexes.deferred-warm-up=true (perfil faststart)
+ * ela nao roda no ApplicationReadyEvent, que atrasa o readiness, e sim em segundo plano; quem consultar
+ * antes de terminar espera por ela em vez de receber um resultado vazio.
+ */
+public class IndexWarmUp {
+
+	private final Runnable build;
+
+	private volatile boolean done;
+
+	public IndexWarmUp(Runnable build) {
+		this.build = build;
+	}
+
+	public void await() {
+		if (done) {
+			return;
+		}
+		synchronized (this) {
+			if (!done) {
+				build.run();
+				done = true;
+			}
+		}
+	}
+}
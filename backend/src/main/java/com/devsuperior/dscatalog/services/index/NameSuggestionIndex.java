@@ -0,0 +1,252 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.function.LongPredicate;
+import java.util.regex.Pattern;
+
+import com.devsuperior.dscatalog.dto.SuggestionDTO;
+
+/*
+ * Indice de prefixos imutavel e compacto: as chaves normalizadas ficam ordenadas em um unico byte[] UTF-8
+ * (a ordem dos bytes UTF-8 preserva a ordem dos code points), os nomes originais em outro byte[], e uma
+ * arvore de segmentos sobre os scores devolve os k melhores de um intervalo de prefixo sem percorre-lo.
+ */
+public final class NameSuggestionIndex {
+
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	private final int size;
+	private final byte[] keys;
+	private final int[] keyOffsets;
+	private final byte[] names;
+	private final int[] nameOffsets;
+	private final long[] ids;
+	private final double[] scores;
+	private final int[] tree;
+
+	private NameSuggestionIndex(int size, byte[] keys, int[] keyOffsets, byte[] names, int[] nameOffsets,
+			long[] ids, double[] scores) {
+		this.size = size;
+		this.keys = keys;
+		this.keyOffsets = keyOffsets;
+		this.names = names;
+		this.nameOffsets = nameOffsets;
+		this.ids = ids;
+		this.scores = scores;
+		this.tree = new int[2 * Math.max(size, 1)];
+		for (int i = 0; i < size; i++) {
+			tree[size + i] = i;
+		}
+		for (int i = size - 1; i > 0; i--) {
+			tree[i] = best(tree[2 * i], tree[2 * i + 1]);
+		}
+	}
+
+	public static String normalize(String value) {
+		String decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+		return MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT).trim();
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long memoryBytes() {
+		return keys.length + names.length + 4L * (keyOffsets.length + nameOffsets.length + tree.length)
+				+ 8L * (ids.length + scores.length);
+	}
+
+	// Melhores "limit" nomes que comecam com o prefixo; ids aceitos por "skip" sao ignorados
+	public List<Suggestion> suggest(String prefix, int limit, LongPredicate skip) {
+		byte[] p = normalize(prefix).getBytes(StandardCharsets.UTF_8);
+		int from = lowerBound(p, false);
+		int to = lowerBound(p, true);
+
+		List<Suggestion> result = new ArrayList<>(limit);
+		PriorityQueue<int[]> ranges = new PriorityQueue<>((a, b) -> compareRank(b[2], a[2]));
+		if (from < to) {
+			ranges.add(new int[] { from, to, query(from, to) });
+		}
+		while (!ranges.isEmpty() && result.size() < limit) {
+			int[] range = ranges.poll();
+			int i = range[2];
+			if (!skip.test(ids[i])) {
+				result.add(new Suggestion(ids[i], name(i), key(i), scores[i]));
+			}
+			if (range[0] < i) {
+				ranges.add(new int[] { range[0], i, query(range[0], i) });
+			}
+			if (i + 1 < range[1]) {
+				ranges.add(new int[] { i + 1, range[1], query(i + 1, range[1]) });
+			}
+		}
+		return result;
+	}
+
+	private String name(int i) {
+		return new String(names, nameOffsets[i], nameOffsets[i + 1] - nameOffsets[i], StandardCharsets.UTF_8);
+	}
+
+	private String key(int i) {
+		return new String(keys, keyOffsets[i], keyOffsets[i + 1] - keyOffsets[i], StandardCharsets.UTF_8);
+	}
+
+	// Primeira posicao cuja chave e >= prefixo (ou > prefixo, quando "after" for verdadeiro)
+	private int lowerBound(byte[] prefix, boolean after) {
+		int lo = 0;
+		int hi = size;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			int cmp = comparePrefix(mid, prefix);
+			if (cmp < 0 || (after && cmp == 0)) {
+				lo = mid + 1;
+			}
+			else {
+				hi = mid;
+			}
+		}
+		return lo;
+	}
+
+	private int comparePrefix(int i, byte[] prefix) {
+		int start = keyOffsets[i];
+		int length = keyOffsets[i + 1] - start;
+		int n = Math.min(length, prefix.length);
+		for (int k = 0; k < n; k++) {
+			int cmp = Byte.toUnsignedInt(keys[start + k]) - Byte.toUnsignedInt(prefix[k]);
+			if (cmp != 0) {
+				return cmp;
+			}
+		}
+		return length >= prefix.length ? 0 : -1;
+	}
+
+	private int query(int from, int to) {
+		int result = -1;
+		for (int l = from + size, r = to + size; l < r; l >>= 1, r >>= 1) {
+			if ((l & 1) == 1) {
+				result = best(result, tree[l++]);
+			}
+			if ((r & 1) == 1) {
+				result = best(result, tree[--r]);
+			}
+		}
+		return result;
+	}
+
+	private int best(int a, int b) {
+		if (a < 0) {
+			return b;
+		}
+		if (b < 0) {
+			return a;
+		}
+		return compareRank(a, b) >= 0 ? a : b;
+	}
+
+	// Maior score primeiro; no empate, a menor chave (ordem alfabetica)
+	private int compareRank(int a, int b) {
+		int cmp = Double.compare(scores[a], scores[b]);
+		return cmp != 0 ? cmp : Integer.compare(b, a);
+	}
+
+	public static class Suggestion {
+
+		private final long id;
+		private final String name;
+		private final String key;
+		private final double score;
+
+		public Suggestion(long id, String name, String key, double score) {
+			this.id = id;
+			this.name = name;
+			this.key = key;
+			this.score = score;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		// Nome normalizado, usado no desempate sem normalizar de novo
+		public String getKey() {
+			return key;
+		}
+
+		public double getScore() {
+			return score;
+		}
+
+		public SuggestionDTO toDto() {
+			return new SuggestionDTO(id, name);
+		}
+	}
+
+	public static class Builder {
+
+		private final List<Entry> entries = new ArrayList<>();
+
+		public Builder add(long id, String name, double score) {
+			if (name != null) {
+				entries.add(new Entry(id, normalize(name).getBytes(StandardCharsets.UTF_8),
+						name.getBytes(StandardCharsets.UTF_8), score));
+			}
+			return this;
+		}
+
+		public NameSuggestionIndex build() {
+			Entry[] sorted = entries.toArray(new Entry[0]);
+			Arrays.sort(sorted, (a, b) -> Arrays.compareUnsigned(a.key, b.key));
+
+			int n = sorted.length;
+			int keyBytes = 0;
+			int nameBytes = 0;
+			for (Entry e : sorted) {
+				keyBytes += e.key.length;
+				nameBytes += e.name.length;
+			}
+
+			byte[] keys = new byte[keyBytes];
+			byte[] names = new byte[nameBytes];
+			int[] keyOffsets = new int[n + 1];
+			int[] nameOffsets = new int[n + 1];
+			long[] ids = new long[n];
+			double[] scores = new double[n];
+			for (int i = 0; i < n; i++) {
+				Entry e = sorted[i];
+				System.arraycopy(e.key, 0, keys, keyOffsets[i], e.key.length);
+				System.arraycopy(e.name, 0, names, nameOffsets[i], e.name.length);
+				keyOffsets[i + 1] = keyOffsets[i] + e.key.length;
+				nameOffsets[i + 1] = nameOffsets[i] + e.name.length;
+				ids[i] = e.id;
+				scores[i] = e.score;
+			}
+			return new NameSuggestionIndex(n, keys, keyOffsets, names, nameOffsets, ids, scores);
+		}
+
+		private static class Entry {
+
+			final long id;
+			final byte[] key;
+			final byte[] name;
+			final double score;
+
+			Entry(long id, byte[] key, byte[] name, double score) {
+				this.id = id;
+				this.key = key;
+				this.name = name;
+				this.score = score;
+			}
+		}
+	}
+}
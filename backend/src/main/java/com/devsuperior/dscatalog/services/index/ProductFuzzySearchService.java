@@ -0,0 +1,165 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+/*
+ * Mesmo esquema do ProductSuggestionService: indice base imutavel + delta com os produtos alterados,
+ * reconstruido em segundo plano quando o delta passa de catalog.search.max-delta.
+ */
+@Service
+public class ProductFuzzySearchService {
+
+	private static Logger logger = LoggerFactory.getLogger(ProductFuzzySearchService.class);
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${catalog.search.min-similarity:0.3}")
+	private double minSimilarity;
+
+	@Value("${catalog.search.max-candidates:5000}")
+	private int maxCandidates;
+
+	@Value("${catalog.search.max-delta:10000}")
+	private int maxDelta;
+
+	@Value("${catalog.indexes.deferred-warm-up:false}")
+	private boolean deferredWarmUp;
+
+	private volatile State state = new State(new TrigramIndex.Builder().build(), new HashMap<>());
+
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private final IndexWarmUp warmUp = new IndexWarmUp(this::rebuild);
+
+	private ThreadPoolTaskExecutor worker;
+
+	@PostConstruct
+	public void init() {
+		worker = new ThreadPoolTaskExecutor();
+		worker.setCorePoolSize(1);
+		worker.setMaxPoolSize(1);
+		worker.setThreadNamePrefix("product-trigram-");
+		worker.setDaemon(true);
+		worker.initialize();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		worker.shutdown();
+	}
+
+	// Ids ordenados por similaridade decrescente (no maximo maxCandidates)
+	public List<TrigramIndex.Match> search(String query) {
+		warmUp.await();
+		State current = state;
+		long[] queryTrigrams = TrigramIndex.trigrams(query);
+
+		List<TrigramIndex.Match> matches = current.base.search(queryTrigrams, minSimilarity, maxCandidates,
+				id -> current.delta.containsKey(id));
+		for (Map.Entry<Long, long[]> entry : current.delta.entrySet()) {
+			double score = TrigramIndex.similarity(queryTrigrams, entry.getValue());
+			if (score >= minSimilarity) {
+				matches.add(new TrigramIndex.Match(entry.getKey(), score));
+			}
+		}
+		matches.sort(Comparator.comparingDouble(TrigramIndex.Match::getScore).reversed()
+				.thenComparingLong(TrigramIndex.Match::getId));
+		// O limite vale para o resultado final: os acertos do delta entram na disputa pelas mesmas vagas
+		return matches.size() > maxCandidates ? new ArrayList<>(matches.subList(0, maxCandidates)) : matches;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (deferredWarmUp) {
+			worker.execute(warmUp::await);
+		}
+		else {
+			warmUp.await();
+		}
+	}
+
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		State started = state;
+		TrigramIndex.Builder builder = new TrigramIndex.Builder();
+		jdbcTemplate.query("SELECT id, name FROM tb_product", rs -> {
+			builder.add(rs.getLong(1), rs.getString(2));
+		});
+		TrigramIndex index = builder.build();
+		swap(started, index);
+		logger.info("Product trigram index built with " + index.size() + " names ("
+				+ index.memoryBytes() / 1024 + " KB) in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onProductChanged(ProductChangedEvent event) {
+		long[] trigrams = new long[0];
+		if (event.getType() != ChangeType.DELETED) {
+			List<String> names = jdbcTemplate.queryForList("SELECT name FROM tb_product WHERE id = ?", String.class,
+					event.getId());
+			if (!names.isEmpty() && names.get(0) != null) {
+				trigrams = TrigramIndex.trigrams(names.get(0));
+			}
+		}
+
+		State current = state;
+		Map<Long, long[]> delta = new HashMap<>(current.delta);
+		delta.put(event.getId(), trigrams);
+		state = new State(current.base, delta);
+
+		if (delta.size() > maxDelta && rebuilding.compareAndSet(false, true)) {
+			worker.execute(() -> {
+				try {
+					rebuild();
+				}
+				finally {
+					rebuilding.set(false);
+				}
+			});
+		}
+	}
+
+	// Alteracoes que chegaram durante a reconstrucao podem nao estar no indice novo: continuam no delta
+	private synchronized void swap(State started, TrigramIndex index) {
+		Map<Long, long[]> delta = new HashMap<>();
+		for (Map.Entry<Long, long[]> entry : state.delta.entrySet()) {
+			if (started.delta.get(entry.getKey()) != entry.getValue()) {
+				delta.put(entry.getKey(), entry.getValue());
+			}
+		}
+		state = new State(index, delta);
+	}
+
+	private static class State {
+
+		final TrigramIndex base;
+		final Map<Long, long[]> delta;
+
+		State(TrigramIndex base, Map<Long, long[]> delta) {
+			this.base = base;
+			this.delta = delta;
+		}
+	}
+}
@@ -0,0 +1,236 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.SuggestionDTO;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+/*
+ * Indice base imutavel + um pequeno delta com os produtos alterados desde a ultima reconstrucao.
+ * Quando o delta passa de catalog.suggest.max-delta o indice base e reconstruido em segundo plano;
+ * ate a troca, as consultas continuam usando o indice antigo + delta.
+ */
+@Service
+public class ProductSuggestionService {
+
+	private static Logger logger = LoggerFactory.getLogger(ProductSuggestionService.class);
+
+	private static final String PRODUCT_COLUMNS = "SELECT id, name, price, date FROM tb_product";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	// price: mais caros primeiro; recent: mais recentes primeiro; none: ordem alfabetica
+	@Value("${catalog.suggest.score:none}")
+	private String scoreMode;
+
+	@Value("${catalog.suggest.max-delta:10000}")
+	private int maxDelta;
+
+	@Value("${catalog.indexes.deferred-warm-up:false}")
+	private boolean deferredWarmUp;
+
+	private volatile State state = new State(new NameSuggestionIndex.Builder().build(), new HashMap<>(),
+			new TreeSet<>(Entry.ORDER));
+
+	private final AtomicBoolean rebuilding = new AtomicBoolean();
+	private final IndexWarmUp warmUp = new IndexWarmUp(this::rebuild);
+
+	private ThreadPoolTaskExecutor worker;
+
+	@PostConstruct
+	public void init() {
+		worker = new ThreadPoolTaskExecutor();
+		worker.setCorePoolSize(1);
+		worker.setMaxPoolSize(1);
+		worker.setThreadNamePrefix("product-suggest-");
+		worker.setDaemon(true);
+		worker.initialize();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		worker.shutdown();
+	}
+
+	public List<SuggestionDTO> suggest(String prefix, int limit) {
+		warmUp.await();
+		State current = state;
+		String key = NameSuggestionIndex.normalize(prefix);
+		if (key.isEmpty() || limit <= 0) {
+			return new ArrayList<>();
+		}
+
+		List<NameSuggestionIndex.Suggestion> candidates = current.base.suggest(key, limit,
+				id -> current.delta.containsKey(id));
+		// O delta fica ordenado pela chave: so o intervalo do prefixo e percorrido
+		for (Entry entry : current.sorted.tailSet(Entry.probe(key), true)) {
+			if (!entry.key.startsWith(key)) {
+				break;
+			}
+			candidates.add(new NameSuggestionIndex.Suggestion(entry.id, entry.name, entry.key, entry.score));
+		}
+		return candidates.stream()
+				.sorted(Comparator.comparingDouble(NameSuggestionIndex.Suggestion::getScore).reversed()
+						.thenComparing(NameSuggestionIndex.Suggestion::getKey))
+				.limit(limit)
+				.map(x -> x.toDto())
+				.collect(Collectors.toList());
+	}
+
+	public long memoryBytes() {
+		return state.base.memoryBytes();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (deferredWarmUp) {
+			worker.execute(warmUp::await);
+		}
+		else {
+			warmUp.await();
+		}
+	}
+
+	public void rebuild() {
+		long start = System.currentTimeMillis();
+		State started = state;
+		NameSuggestionIndex.Builder builder = new NameSuggestionIndex.Builder();
+		jdbcTemplate.query(PRODUCT_COLUMNS, rs -> {
+			Entry entry = mapRow(rs);
+			builder.add(entry.id, entry.name, entry.score);
+		});
+		NameSuggestionIndex index = builder.build();
+		swap(started, index);
+		logger.info("Product suggestion index built with " + index.size() + " names ("
+				+ index.memoryBytes() / 1024 + " KB) in " + (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public synchronized void onProductChanged(ProductChangedEvent event) {
+		Entry entry = null;
+		if (event.getType() != ChangeType.DELETED) {
+			List<Entry> rows = jdbcTemplate.query(PRODUCT_COLUMNS + " WHERE id = ?", (rs, rowNum) -> mapRow(rs),
+					event.getId());
+			entry = rows.isEmpty() ? null : rows.get(0);
+		}
+
+		State current = state;
+		Map<Long, Entry> delta = new HashMap<>(current.delta);
+		NavigableSet<Entry> sorted = new TreeSet<>(current.sorted);
+		Entry previous = delta.put(event.getId(), entry != null ? entry : new Entry(event.getId(), null, 0.0));
+		if (previous != null && previous.name != null) {
+			sorted.remove(previous);
+		}
+		if (entry != null && entry.name != null) {
+			sorted.add(entry);
+		}
+		state = new State(current.base, delta, sorted);
+
+		if (delta.size() > maxDelta && rebuilding.compareAndSet(false, true)) {
+			worker.execute(() -> {
+				try {
+					rebuild();
+				}
+				finally {
+					rebuilding.set(false);
+				}
+			});
+		}
+	}
+
+	// Alteracoes que chegaram durante a reconstrucao podem nao estar no indice novo: continuam no delta
+	private synchronized void swap(State started, NameSuggestionIndex index) {
+		Map<Long, Entry> delta = new HashMap<>();
+		NavigableSet<Entry> sorted = new TreeSet<>(Entry.ORDER);
+		for (Entry entry : state.delta.values()) {
+			if (started.delta.get(entry.id) != entry) {
+				delta.put(entry.id, entry);
+				if (entry.name != null) {
+					sorted.add(entry);
+				}
+			}
+		}
+		state = new State(index, delta, sorted);
+	}
+
+	private Entry mapRow(ResultSet rs) throws SQLException {
+		double score = 0.0;
+		if ("price".equals(scoreMode)) {
+			score = rs.getDouble("price");
+		}
+		else if ("recent".equals(scoreMode)) {
+			Timestamp date = rs.getTimestamp("date");
+			score = date == null ? 0.0 : date.getTime();
+		}
+		return new Entry(rs.getLong("id"), rs.getString("name"), score);
+	}
+
+	private static class Entry {
+
+		static final Comparator<Entry> ORDER = Comparator.comparing((Entry x) -> x.key).thenComparingLong(x -> x.id);
+
+		final long id;
+		final String name;
+		final String key;
+		final double score;
+
+		Entry(long id, String name, double score) {
+			this.id = id;
+			this.name = name;
+			this.key = name == null ? null : NameSuggestionIndex.normalize(name);
+			this.score = score;
+		}
+
+		private Entry(String key) {
+			this.id = Long.MIN_VALUE;
+			this.name = null;
+			this.key = key;
+			this.score = 0.0;
+		}
+
+		// Menor entrada possivel com a chave dada, ponto de partida da busca por prefixo
+		static Entry probe(String key) {
+			return new Entry(key);
+		}
+	}
+
+	private static class State {
+
+		final NameSuggestionIndex base;
+		final Map<Long, Entry> delta;
+		final NavigableSet<Entry> sorted;
+
+		State(NameSuggestionIndex base, Map<Long, Entry> delta, NavigableSet<Entry> sorted) {
+			this.base = base;
+			this.delta = delta;
+			this.sorted = sorted;
+		}
+	}
+}
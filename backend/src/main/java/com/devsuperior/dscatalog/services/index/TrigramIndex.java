@@ -0,0 +1,245 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongPredicate;
+
+/*
+ * Indice invertido de trigramas (estilo pg_trgm) sobre os nomes normalizados.
+ * Os trigramas distintos ficam ordenados em long[] e as listas de postagem em um unico int[] (formato CSR).
+ * A similaridade e o coeficiente de Dice: 2 * comuns / (trigramas da consulta + trigramas do nome).
+ */
+public final class TrigramIndex {
+
+	private final int size;
+	private final long[] ids;
+	private final int[] trigramCounts;
+	private final long[] trigrams;
+	private final int[] postingOffsets;
+	private final int[] postings;
+
+	private TrigramIndex(int size, long[] ids, int[] trigramCounts, long[] trigrams, int[] postingOffsets, int[] postings) {
+		this.size = size;
+		this.ids = ids;
+		this.trigramCounts = trigramCounts;
+		this.trigrams = trigrams;
+		this.postingOffsets = postingOffsets;
+		this.postings = postings;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public long memoryBytes() {
+		return 8L * (ids.length + trigrams.length) + 4L * (trigramCounts.length + postingOffsets.length + postings.length);
+	}
+
+	public static long[] trigrams(String value) {
+		String normalized = NameSuggestionIndex.normalize(value);
+		List<Long> result = new ArrayList<>();
+		for (String word : normalized.split("[^\\p{L}\\p{N}]+")) {
+			if (word.isEmpty()) {
+				continue;
+			}
+			String padded = "  " + word + " ";
+			for (int i = 0; i + 3 <= padded.length(); i++) {
+				result.add(encode(padded.charAt(i), padded.charAt(i + 1), padded.charAt(i + 2)));
+			}
+		}
+		return result.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+	}
+
+	public static double similarity(long[] a, long[] b) {
+		if (a.length == 0 || b.length == 0) {
+			return 0.0;
+		}
+		int common = 0;
+		for (int i = 0, j = 0; i < a.length && j < b.length;) {
+			if (a[i] == b[j]) {
+				common++;
+				i++;
+				j++;
+			}
+			else if (a[i] < b[j]) {
+				i++;
+			}
+			else {
+				j++;
+			}
+		}
+		return 2.0 * common / (a.length + b.length);
+	}
+
+	private static long encode(char a, char b, char c) {
+		return ((long) a << 32) | ((long) b << 16) | c;
+	}
+
+	/*
+	 * Percorre primeiro as listas mais raras; ao atingir maxCandidates, novos produtos deixam de entrar.
+	 * Dai em diante as listas restantes nao sao mais percorridas inteiras: como cada lista esta ordenada
+	 * por linha, cada candidato e procurado por busca binaria quando isso for mais barato que varrer a lista.
+	 */
+	public List<Match> search(long[] queryTrigrams, double minSimilarity, int maxCandidates, LongPredicate skip) {
+		List<Match> result = new ArrayList<>();
+		if (queryTrigrams.length == 0 || size == 0) {
+			return result;
+		}
+
+		int[][] lists = new int[queryTrigrams.length][];
+		int found = 0;
+		for (long trigram : queryTrigrams) {
+			int t = Arrays.binarySearch(trigrams, trigram);
+			if (t >= 0) {
+				lists[found++] = new int[] { postingOffsets[t], postingOffsets[t + 1] };
+			}
+		}
+		int[][] ranges = Arrays.copyOf(lists, found);
+		Arrays.sort(ranges, (a, b) -> Integer.compare(a[1] - a[0], b[1] - b[0]));
+
+		int capacity = Integer.highestOneBit(Math.max(maxCandidates, 16) * 2 - 1) << 1;
+		int[] keys = new int[capacity];
+		int[] counts = new int[capacity];
+		Arrays.fill(keys, -1);
+		int mask = capacity - 1;
+		int candidates = 0;
+
+		int r = 0;
+		for (; r < ranges.length && candidates < maxCandidates; r++) {
+			for (int p = ranges[r][0]; p < ranges[r][1]; p++) {
+				int row = postings[p];
+				int slot = slot(keys, row, mask);
+				if (keys[slot] == row) {
+					counts[slot]++;
+				}
+				else if (candidates < maxCandidates) {
+					keys[slot] = row;
+					counts[slot] = 1;
+					candidates++;
+				}
+			}
+		}
+		if (r < ranges.length) {
+			countCapped(Arrays.copyOfRange(ranges, r, ranges.length), keys, counts, candidates);
+		}
+
+		for (int slot = 0; slot < capacity; slot++) {
+			int row = keys[slot];
+			if (row < 0 || skip.test(ids[row])) {
+				continue;
+			}
+			double score = 2.0 * counts[slot] / (queryTrigrams.length + trigramCounts[row]);
+			if (score >= minSimilarity) {
+				result.add(new Match(ids[row], score));
+			}
+		}
+		return result;
+	}
+
+	// Com o limite atingido so interessam os candidatos ja encontrados
+	private void countCapped(int[][] ranges, int[] keys, int[] counts, int candidates) {
+		int[] slots = new int[candidates];
+		int n = 0;
+		for (int slot = 0; slot < keys.length; slot++) {
+			if (keys[slot] >= 0) {
+				slots[n++] = slot;
+			}
+		}
+		int mask = keys.length - 1;
+		for (int[] range : ranges) {
+			int length = range[1] - range[0];
+			int searchCost = candidates * (32 - Integer.numberOfLeadingZeros(length));
+			if (length <= searchCost) {
+				for (int p = range[0]; p < range[1]; p++) {
+					int slot = slot(keys, postings[p], mask);
+					if (keys[slot] == postings[p]) {
+						counts[slot]++;
+					}
+				}
+			}
+			else {
+				for (int slot : slots) {
+					if (Arrays.binarySearch(postings, range[0], range[1], keys[slot]) >= 0) {
+						counts[slot]++;
+					}
+				}
+			}
+		}
+	}
+
+	// Posicao da linha na tabela aberta (ou a vaga onde ela entraria)
+	private static int slot(int[] keys, int row, int mask) {
+		int slot = (row * 0x9E3779B9) >>> 1 & mask;
+		while (keys[slot] != -1 && keys[slot] != row) {
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	public static class Match {
+
+		private final long id;
+		private final double score;
+
+		public Match(long id, double score) {
+			this.id = id;
+			this.score = score;
+		}
+
+		public long getId() {
+			return id;
+		}
+
+		public double getScore() {
+			return score;
+		}
+	}
+
+	public static class Builder {
+
+		private final List<long[]> rows = new ArrayList<>();
+		private long[] ids = new long[1024];
+
+		public Builder add(long id, String name) {
+			if (name == null) {
+				return this;
+			}
+			if (rows.size() == ids.length) {
+				ids = Arrays.copyOf(ids, ids.length * 2);
+			}
+			ids[rows.size()] = id;
+			rows.add(trigrams(name));
+			return this;
+		}
+
+		public TrigramIndex build() {
+			int n = rows.size();
+			int[] trigramCounts = new int[n];
+			Map<Long, Integer> frequency = new HashMap<>();
+			for (int i = 0; i < n; i++) {
+				trigramCounts[i] = rows.get(i).length;
+				for (long trigram : rows.get(i)) {
+					frequency.merge(trigram, 1, Integer::sum);
+				}
+			}
+
+			long[] trigrams = frequency.keySet().stream().mapToLong(Long::longValue).sorted().toArray();
+			int[] postingOffsets = new int[trigrams.length + 1];
+			for (int t = 0; t < trigrams.length; t++) {
+				postingOffsets[t + 1] = postingOffsets[t] + frequency.get(trigrams[t]);
+			}
+
+			int[] postings = new int[postingOffsets[trigrams.length]];
+			int[] next = Arrays.copyOf(postingOffsets, trigrams.length);
+			for (int i = 0; i < n; i++) {
+				for (long trigram : rows.get(i)) {
+					postings[next[Arrays.binarySearch(trigrams, trigram)]++] = i;
+				}
+			}
+			return new TrigramIndex(n, Arrays.copyOf(ids, n), trigramCounts, trigrams, postingOffsets, postings);
+		}
+	}
+}
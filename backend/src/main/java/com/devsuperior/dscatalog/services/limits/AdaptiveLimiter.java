@@ -0,0 +1,105 @@
+package com.devsuperior.dscatalog.services.limits;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/*
+ * Limite de chamadas simultaneas ajustado pela latencia (gradiente, como no TCP Vegas):
+ * compara a media curta do tempo de resposta com a media longa. Se a curta sobe, ha fila
+ * em algum lugar (pool, banco) e o limite cai; se fica estavel, o limite cresce devagar.
+ * Falhas de recurso (ex.: timeout do pool) reduzem o limite multiplicativamente.
+ */
+public class AdaptiveLimiter {
+
+	private static final double SHORT_WINDOW = 10.0;
+	private static final double LONG_WINDOW = 600.0;
+	// Quanto a latencia curta pode passar da longa antes do limite cair
+	private static final double TOLERANCE = 1.5;
+	private static final double SMOOTHING = 0.2;
+	private static final double BACKOFF = 0.9;
+
+	private final String name;
+	private final int minLimit;
+	private final int maxLimit;
+
+	private final AtomicInteger inFlight = new AtomicInteger();
+	private final LongAdder rejected = new LongAdder();
+
+	private volatile double limit;
+	private double shortRtt;
+	private double longRtt;
+
+	public AdaptiveLimiter(String name, int initialLimit, int minLimit, int maxLimit) {
+		this.name = name;
+		this.minLimit = minLimit;
+		this.maxLimit = maxLimit;
+		this.limit = initialLimit;
+	}
+
+	public boolean tryAcquire() {
+		while (true) {
+			int current = inFlight.get();
+			if (current >= (int) limit) {
+				rejected.increment();
+				return false;
+			}
+			if (inFlight.compareAndSet(current, current + 1)) {
+				return true;
+			}
+		}
+	}
+
+	// dropped: a chamada falhou por falta de recurso e nao mede a latencia real
+	public void release(long rttNanos, boolean dropped) {
+		int current = inFlight.getAndDecrement();
+		update(rttNanos, current, dropped);
+	}
+
+	private synchronized void update(long rttNanos, int inFlightAtEnd, boolean dropped) {
+		if (dropped) {
+			limit = Math.max(minLimit, limit * BACKOFF);
+			return;
+		}
+
+		shortRtt = shortRtt == 0 ? rttNanos : shortRtt + (rttNanos - shortRtt) / SHORT_WINDOW;
+		longRtt = longRtt == 0 ? rttNanos : longRtt + (rttNanos - longRtt) / LONG_WINDOW;
+
+		// Com menos da metade do limite em uso a latencia nao diz nada sobre a capacidade
+		if (inFlightAtEnd < limit / 2) {
+			return;
+		}
+		// A media longa acompanha mais rapido quando a carga normal ficou mais leve
+		if (longRtt / shortRtt > 2) {
+			longRtt *= 0.95;
+		}
+
+		double gradient = Math.max(0.5, Math.min(1.0, TOLERANCE * longRtt / shortRtt));
+		double target = limit * gradient + Math.sqrt(limit);
+		double next = limit * (1 - SMOOTHING) + target * SMOOTHING;
+		limit = Math.max(minLimit, Math.min(maxLimit, next));
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public int getLimit() {
+		return (int) limit;
+	}
+
+	public int getInFlight() {
+		return inFlight.get();
+	}
+
+	public long getRejected() {
+		return rejected.sum();
+	}
+
+	public synchronized double getShortRttMillis() {
+		return shortRtt / 1_000_000.0;
+	}
+
+	public synchronized double getLongRttMillis() {
+		return longRtt / 1_000_000.0;
+	}
+}
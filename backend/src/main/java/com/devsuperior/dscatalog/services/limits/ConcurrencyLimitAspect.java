@@ -0,0 +1,74 @@
+package com.devsuperior.dscatalog.services.limits;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+/*
+ * Envolve os services anotados com @ConcurrencyLimited. Roda antes do @Transactional:
+ * a chamada recusada nao chega a pedir conexao ao pool.
+ * Listeners de evento e o login ficam de fora (nao tem como responder 503).
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "catalog.limits.enabled", havingValue = "true", matchIfMissing = true)
+public class ConcurrencyLimitAspect {
+
+	@Value("${catalog.limits.initial-limit:20}")
+	private int initialLimit;
+
+	@Value("${catalog.limits.min-limit:8}")
+	private int minLimit;
+
+	@Value("${catalog.limits.max-limit:200}")
+	private int maxLimit;
+
+	@Value("${catalog.limits.retry-after-seconds:1}")
+	private long retryAfterSeconds;
+
+	private final ConcurrentHashMap<String, AdaptiveLimiter> limiters = new ConcurrentHashMap<>();
+
+	@Around("@within(limited) && execution(public * *(..)) "
+			+ "&& !@annotation(org.springframework.transaction.event.TransactionalEventListener) "
+			+ "&& !execution(* loadUserByUsername(..))")
+	public Object limit(ProceedingJoinPoint joinPoint, ConcurrencyLimited limited) throws Throwable {
+		AdaptiveLimiter limiter = limiters.computeIfAbsent(limited.value(),
+				x -> new AdaptiveLimiter(x, initialLimit, minLimit, maxLimit));
+		if (!limiter.tryAcquire()) {
+			throw new ServiceOverloadedException("Too many concurrent requests for " + limiter.getName(),
+					retryAfterSeconds);
+		}
+
+		long start = System.nanoTime();
+		boolean dropped = false;
+		try {
+			return joinPoint.proceed();
+		}
+		catch (CannotCreateTransactionException | QueryTimeoutException | DataAccessResourceFailureException e) {
+			dropped = true;
+			throw e;
+		}
+		finally {
+			limiter.release(System.nanoTime() - start, dropped);
+		}
+	}
+
+	public List<AdaptiveLimiter> getLimiters() {
+		return new ArrayList<>(limiters.values());
+	}
+}
@@ -0,0 +1,14 @@
+package com.devsuperior.dscatalog.services.limits;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+// Os metodos publicos do service dividem um limite adaptativo com o nome informado
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface ConcurrencyLimited {
+
+	String value();
+}
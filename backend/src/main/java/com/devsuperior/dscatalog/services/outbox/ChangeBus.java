@@ -0,0 +1,14 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.util.function.Consumer;
+
+/*
+ * Destino das alteracoes lidas do outbox. A implementacao padrao entrega dentro da propria JVM;
+ * para usar um broker registre outro bean ChangeBus com catalog.outbox.bus diferente de in-memory.
+ */
+public interface ChangeBus {
+
+	void publish(ChangeMessage message);
+
+	void subscribe(Consumer<ChangeMessage> subscriber);
+}
@@ -0,0 +1,52 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+
+public class ChangeMessage implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private final Long sequence;
+	private final String aggregate;
+	private final Long aggregateId;
+	private final ChangeType type;
+	private final String origin;
+	private final Instant createdAt;
+
+	public ChangeMessage(OutboxEvent event) {
+		this.sequence = event.getId();
+		this.aggregate = event.getAggregate();
+		this.aggregateId = event.getAggregateId();
+		this.type = event.getType();
+		this.origin = event.getOrigin();
+		this.createdAt = event.getCreatedAt();
+	}
+
+	public Long getSequence() {
+		return sequence;
+	}
+
+	public String getAggregate() {
+		return aggregate;
+	}
+
+	public Long getAggregateId() {
+		return aggregateId;
+	}
+
+	public ChangeType getType() {
+		return type;
+	}
+
+	public String getOrigin() {
+		return origin;
+	}
+
+	public Instant getCreatedAt() {
+		return createdAt;
+	}
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+public class InMemoryChangeBus implements ChangeBus {
+
+	private static Logger logger = LoggerFactory.getLogger(InMemoryChangeBus.class);
+
+	private final List<Consumer<ChangeMessage>> subscribers = new CopyOnWriteArrayList<>();
+
+	@Override
+	public void publish(ChangeMessage message) {
+		for (Consumer<ChangeMessage> subscriber : subscribers) {
+			try {
+				subscriber.accept(message);
+			}
+			catch (RuntimeException e) {
+				logger.error("Change subscriber failed for " + message.getAggregate() + " " + message.getAggregateId(), e);
+			}
+		}
+	}
+
+	@Override
+	public void subscribe(Consumer<ChangeMessage> subscriber) {
+		subscribers.add(subscriber);
+	}
+}
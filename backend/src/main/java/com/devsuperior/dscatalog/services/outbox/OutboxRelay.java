@@ -0,0 +1,149 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.repositories.OutboxEventRepository;
+
+/*
+ * Le o tb_outbox em ordem de id e entrega cada registro no ChangeBus, sempre em ordem crescente de id.
+ * Ids pulados podem ser transacoes que ainda nao fizeram commit: viram lacunas consultadas de novo a cada
+ * ciclo, e os registros seguintes ficam retidos ate a lacuna fechar ou passar de catalog.outbox.gap-timeout-ms
+ * (rollback). Um commit que chegar depois disso nao e mais entregue; a expiracao fica no log como aviso.
+ */
+@Component
+public class OutboxRelay {
+
+	private static Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+	@Autowired
+	private OutboxEventRepository repository;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private ChangeBus bus;
+
+	@Value("${catalog.outbox.batch-size:500}")
+	private int batchSize;
+
+	@Value("${catalog.outbox.gap-timeout-ms:5000}")
+	private long gapTimeoutMs;
+
+	@Value("${catalog.outbox.retention-ms:3600000}")
+	private long retentionMs;
+
+	// Maior id ja lido do banco (entregue ou retido)
+	private long readId = -1;
+
+	// id pendente -> instante em que a lacuna foi vista
+	private final NavigableMap<Long, Long> gaps = new TreeMap<>();
+
+	// Lidos acima da menor lacuna aberta: esperam por ela para manter a ordem
+	private final NavigableMap<Long, OutboxEvent> held = new TreeMap<>();
+
+	@EventListener(ApplicationReadyEvent.class)
+	public synchronized void start() {
+		// So interessa o que for escrito daqui em diante: o estado inicial ja vem do banco
+		Long max = repository.findMaxId();
+		readId = max == null ? 0L : max;
+
+		// Ids abaixo do maximo que faltam entre registros recentes podem ser transacoes ainda em voo
+		long now = System.currentTimeMillis();
+		Instant recent = Instant.ofEpochMilli(now - gapTimeoutMs);
+		Long previous = null;
+		for (OutboxEvent event : repository.findByIdGreaterThanOrderByIdAsc(Math.max(0L, readId - batchSize),
+				PageRequest.of(0, batchSize))) {
+			if (previous != null && event.getCreatedAt() != null && event.getCreatedAt().isAfter(recent)) {
+				trackGaps(previous, event.getId(), now);
+			}
+			previous = event.getId();
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${catalog.outbox.poll-interval-ms:200}")
+	public synchronized void poll() {
+		if (readId < 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		if (!gaps.isEmpty()) {
+			for (OutboxEvent event : repository.findAllById(new ArrayList<>(gaps.keySet()))) {
+				gaps.remove(event.getId());
+				held.put(event.getId(), event);
+			}
+		}
+
+		List<OutboxEvent> batch;
+		do {
+			batch = repository.findByIdGreaterThanOrderByIdAsc(readId, PageRequest.of(0, batchSize));
+			for (OutboxEvent event : batch) {
+				trackGaps(readId, event.getId(), now);
+				readId = event.getId();
+				held.put(event.getId(), event);
+			}
+		} while (batch.size() == batchSize);
+
+		expireGaps(now);
+		release();
+	}
+
+	@Scheduled(fixedDelayString = "${catalog.outbox.cleanup-interval-ms:60000}")
+	public void cleanup() {
+		int deleted = outboxService.purge(Instant.now().minusMillis(retentionMs));
+		if (deleted > 0) {
+			logger.info("Outbox cleanup removed " + deleted + " events");
+		}
+	}
+
+	private void expireGaps(long now) {
+		Iterator<Map.Entry<Long, Long>> it = gaps.entrySet().iterator();
+		while (it.hasNext()) {
+			Map.Entry<Long, Long> gap = it.next();
+			if (now - gap.getValue() > gapTimeoutMs) {
+				logger.warn("Outbox id " + gap.getKey() + " still missing after " + gapTimeoutMs
+						+ " ms, relaying past it; if that transaction commits later it will not be relayed");
+				it.remove();
+			}
+		}
+	}
+
+	// Entrega so o que esta abaixo da menor lacuna aberta
+	private void release() {
+		Long firstGap = gaps.isEmpty() ? null : gaps.firstKey();
+		while (!held.isEmpty() && (firstGap == null || held.firstKey() < firstGap)) {
+			publish(held.pollFirstEntry().getValue());
+		}
+	}
+
+	private void trackGaps(long previous, long current, long now) {
+		// Saltos grandes sao do cache da sequence, nao de transacoes em voo
+		if (current - previous - 1 > batchSize) {
+			return;
+		}
+		for (long id = previous + 1; id < current; id++) {
+			gaps.put(id, now);
+		}
+	}
+
+	private void publish(OutboxEvent event) {
+		bus.publish(new ChangeMessage(event));
+	}
+}
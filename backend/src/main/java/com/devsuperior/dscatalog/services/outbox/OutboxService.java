@@ -0,0 +1,38 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.time.Instant;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.repositories.OutboxEventRepository;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+
+@Service
+public class OutboxService {
+
+	@Autowired
+	private OutboxEventRepository repository;
+
+	@Value("${catalog.node-id}")
+	private String nodeId;
+
+	// So faz sentido dentro da transacao da escrita: o registro entra ou sai junto com a alteracao
+	@Transactional(propagation = Propagation.MANDATORY)
+	public void record(String aggregate, Long aggregateId, ChangeType type) {
+		repository.save(new OutboxEvent(aggregate, aggregateId, type, nodeId));
+	}
+
+	@Transactional
+	public int purge(Instant before) {
+		return repository.deleteOlderThan(before);
+	}
+
+	public String getNodeId() {
+		return nodeId;
+	}
+}
@@ -0,0 +1,45 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.services.events.CategoryChangedEvent;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+/*
+ * Aplica nesta instancia as escritas feitas pelas outras: os indices em memoria recebem o
+ * mesmo ProductChangedEvent de uma escrita local (o que tambem descarta o cache de facetas).
+ */
+@Component
+public class RemoteChangeListener {
+
+	@Autowired
+	private ChangeBus bus;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private ApplicationEventPublisher publisher;
+
+	@PostConstruct
+	public void register() {
+		bus.subscribe(this::onChange);
+	}
+
+	public void onChange(ChangeMessage message) {
+		if (outboxService.getNodeId().equals(message.getOrigin())) {
+			return;
+		}
+		if (OutboxEvent.PRODUCT.equals(message.getAggregate())) {
+			publisher.publishEvent(new ProductChangedEvent(message.getAggregateId(), message.getType()));
+		}
+		else if (OutboxEvent.CATEGORY.equals(message.getAggregate())) {
+			publisher.publishEvent(new CategoryChangedEvent(message.getAggregateId(), message.getType()));
+		}
+	}
+}
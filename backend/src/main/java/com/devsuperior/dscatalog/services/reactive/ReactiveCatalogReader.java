@@ -0,0 +1,152 @@
+package com.devsuperior.dscatalog.services.reactive;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.r2dbc.core.DatabaseClient.GenericExecuteSpec;
+import org.springframework.stereotype.Component;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/*
+ * Leituras de produtos e categorias pelo driver R2DBC, direto nas tabelas que o JPA escreve.
+ * Nada fica em cache: o que o ProductService grava aparece aqui assim que a transacao e confirmada.
+ * O pool nao e registrado como bean ConnectionFactory, senao o Spring Boot desliga o DataSource JDBC.
+ * Com H2 o driver executa a consulta na thread que assina; o ganho de verdade e com o r2dbc-postgresql.
+ */
+@Component
+@ConditionalOnProperty(name = "catalog.reactive.enabled", havingValue = "true")
+public class ReactiveCatalogReader {
+
+	private static final String PRODUCT_COLUMNS = "SELECT id, name, description, price, img_url, date, version FROM tb_product";
+	private static final String CATEGORY_COLUMNS = "SELECT id, name, version FROM tb_category";
+
+	@Value("${catalog.reactive.url}")
+	private String url;
+
+	@Value("${catalog.reactive.username:${spring.datasource.username:}}")
+	private String username;
+
+	@Value("${catalog.reactive.password:${spring.datasource.password:}}")
+	private String password;
+
+	@Value("${catalog.reactive.pool-size:10}")
+	private int poolSize;
+
+	private ConnectionPool pool;
+	private DatabaseClient client;
+
+	@PostConstruct
+	public void init() {
+		ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(url).mutate();
+		if (!username.isEmpty()) {
+			options.option(ConnectionFactoryOptions.USER, username);
+			options.option(ConnectionFactoryOptions.PASSWORD, password);
+		}
+		pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options.build()))
+				.initialSize(poolSize)
+				.maxSize(poolSize)
+				.build());
+		client = DatabaseClient.create(pool);
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		pool.dispose();
+	}
+
+	// Mesmo filtro de preco do ProductService; paginas em ordem de id
+	public Flux<ProductDTO> findProducts(Double minPrice, Double maxPrice, long offset, int size) {
+		boolean filtered = minPrice != null || maxPrice != null;
+		GenericExecuteSpec spec = client.sql(PRODUCT_COLUMNS + (filtered ? " WHERE price BETWEEN :min AND :max" : "")
+				+ " ORDER BY id LIMIT :size OFFSET :offset")
+				.bind("size", size)
+				.bind("offset", offset);
+		if (filtered) {
+			spec = spec.bind("min", minPrice == null ? 0.0 : minPrice)
+					.bind("max", maxPrice == null ? Double.MAX_VALUE : maxPrice);
+		}
+		return spec.map(ReactiveCatalogReader::toProduct).all();
+	}
+
+	// Catalogo inteiro em blocos por id: o proximo bloco so e lido quando o cliente consome o anterior
+	public Flux<ProductDTO> streamProducts(int chunkSize) {
+		return productsAfter(0L, chunkSize)
+				.expand(chunk -> chunk.size() < chunkSize ? Mono.empty()
+						: productsAfter(chunk.get(chunk.size() - 1).getId(), chunkSize))
+				.flatMapIterable(chunk -> chunk);
+	}
+
+	public Mono<ProductDTO> findProduct(Long id) {
+		Mono<ProductDTO> product = client.sql(PRODUCT_COLUMNS + " WHERE id = :id")
+				.bind("id", id)
+				.map(ReactiveCatalogReader::toProduct)
+				.one();
+		Mono<List<CategoryDTO>> categories = client.sql("SELECT c.id, c.name, c.version FROM tb_category c "
+				+ "INNER JOIN tb_product_category pc ON pc.category_id = c.id WHERE pc.product_id = :id ORDER BY c.id")
+				.bind("id", id)
+				.map(ReactiveCatalogReader::toCategory)
+				.all()
+				.collectList();
+		return product.zipWith(categories, (dto, list) -> {
+			dto.setCategories(list);
+			return dto;
+		});
+	}
+
+	public Flux<CategoryDTO> findCategories(long offset, int size) {
+		return client.sql(CATEGORY_COLUMNS + " ORDER BY id LIMIT :size OFFSET :offset")
+				.bind("size", size)
+				.bind("offset", offset)
+				.map(ReactiveCatalogReader::toCategory)
+				.all();
+	}
+
+	public Mono<CategoryDTO> findCategory(Long id) {
+		return client.sql(CATEGORY_COLUMNS + " WHERE id = :id")
+				.bind("id", id)
+				.map(ReactiveCatalogReader::toCategory)
+				.one();
+	}
+
+	private Mono<List<ProductDTO>> productsAfter(long id, int size) {
+		return client.sql(PRODUCT_COLUMNS + " WHERE id > :id ORDER BY id LIMIT :size")
+				.bind("id", id)
+				.bind("size", size)
+				.map(ReactiveCatalogReader::toProduct)
+				.all()
+				.collectList();
+	}
+
+	// TIMESTAMP WITHOUT TIME ZONE no fuso da JVM, como o Hibernate grava o Instant
+	private static ProductDTO toProduct(Row row) {
+		LocalDateTime date = row.get("date", LocalDateTime.class);
+		ProductDTO dto = new ProductDTO(row.get("id", Long.class), row.get("name", String.class),
+				row.get("description", String.class), row.get("price", Double.class), row.get("img_url", String.class),
+				date == null ? null : date.atZone(ZoneId.systemDefault()).toInstant());
+		dto.setVersion(row.get("version", Long.class));
+		return dto;
+	}
+
+	private static CategoryDTO toCategory(Row row) {
+		CategoryDTO dto = new CategoryDTO(row.get("id", Long.class), row.get("name", String.class));
+		dto.setVersion(row.get("version", Long.class));
+		return dto;
+	}
+}
@@ -0,0 +1,30 @@
+package com.devsuperior.dscatalog.services.snapshot;
+
+import java.time.Instant;
+
+class ProductRow {
+
+	final long id;
+	final String name;
+	final String description;
+	final double price;
+	final String imgUrl;
+	final long date;
+
+	ProductRow(long id, String name, String description, Double price, String imgUrl, Instant date) {
+		this.id = id;
+		this.name = name;
+		this.description = description;
+		this.price = price == null ? Double.NaN : price;
+		this.imgUrl = imgUrl;
+		this.date = date == null ? Long.MIN_VALUE : toEpochMicros(date);
+	}
+
+	static long toEpochMicros(Instant instant) {
+		return instant.getEpochSecond() * 1_000_000L + instant.getNano() / 1_000;
+	}
+
+	static Instant fromEpochMicros(long micros) {
+		return Instant.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), Math.floorMod(micros, 1_000_000L) * 1_000L);
+	}
+}
@@ -0,0 +1,371 @@
+package com.devsuperior.dscatalog.services.snapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+/*
+ * Copia imutavel do catalogo em arrays por coluna, para a listagem de /products (sem filtro de categoria:
+ * esse caminho e o CategoryBitmapIndex). As linhas ficam ordenadas por id;
+ * produtos removidos apenas saem do bitset "live" ate a proxima reconstrucao completa.
+ * Toda alteracao gera um novo snapshot, entao leitores nunca veem um estado parcial.
+ * Nomes sao ordenados pelo nameOrder: a ordem natural do Java e a mesma do H2 sem COLLATION;
+ * com outro banco configure catalog.snapshot.collation para o mesmo idioma da coluna.
+ */
+public final class ProductSnapshot {
+
+	private static final Set<String> SORTABLE = Set.of("id", "name", "price", "date");
+
+	private final int size;
+	private final long[] ids;
+	private final String[] names;
+	private final String[] descriptions;
+	private final String[] imgUrls;
+	private final double[] prices;
+	private final long[] dates;
+	private final BitSet live;
+	private final int liveCount;
+	private final Comparator<String> nameOrder;
+
+	// Ordenacoes derivadas, calculadas sob demanda (corrida benigna: o resultado e sempre o mesmo)
+	private volatile int[] byName;
+	private volatile int[] byPrice;
+	private volatile int[] byDate;
+
+	private ProductSnapshot(int size, long[] ids, String[] names, String[] descriptions, String[] imgUrls,
+			double[] prices, long[] dates, BitSet live, Comparator<String> nameOrder) {
+		this.size = size;
+		this.ids = ids;
+		this.names = names;
+		this.descriptions = descriptions;
+		this.imgUrls = imgUrls;
+		this.prices = prices;
+		this.dates = dates;
+		this.live = live;
+		this.liveCount = live.cardinality();
+		this.nameOrder = nameOrder;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int liveCount() {
+		return liveCount;
+	}
+
+	public int tombstones() {
+		return size - liveCount;
+	}
+
+	public static boolean supports(Pageable pageable) {
+		if (pageable.isUnpaged()) {
+			return false;
+		}
+		int orders = 0;
+		for (Sort.Order order : pageable.getSort()) {
+			// ignoreCase e nullsFirst/nullsLast mudam a ordem do banco; esses pedidos vao para o JPA
+			if (++orders > 1 || !SORTABLE.contains(order.getProperty()) || order.isIgnoreCase()
+					|| order.getNullHandling() != Sort.NullHandling.NATIVE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public Page<ProductDTO> findAllPaged(Double minPrice, Double maxPrice, Pageable pageable) {
+		Sort.Order order = pageable.getSort().isSorted() ? pageable.getSort().iterator().next() : null;
+		int[] ordering = order == null ? null : ordering(order.getProperty());
+		boolean descending = order != null && order.isDescending();
+
+		boolean filter = minPrice != null || maxPrice != null;
+		double min = minPrice == null ? 0.0 : minPrice;
+		double max = maxPrice == null ? Double.MAX_VALUE : maxPrice;
+
+		long offset = pageable.getOffset();
+		int pageSize = pageable.getPageSize();
+		List<ProductDTO> content = new ArrayList<>(pageSize);
+		long matched = 0;
+
+		// Sem filtro o total ja e conhecido e a varredura para quando a pagina enche
+		for (int k = 0; k < size && (filter || content.size() < pageSize); k++) {
+			int pos = descending ? size - 1 - k : k;
+			int i = ordering == null ? pos : ordering[pos];
+			if (!live.get(i) || (filter && !(prices[i] >= min && prices[i] <= max))) {
+				continue;
+			}
+			if (matched >= offset && content.size() < pageSize) {
+				content.add(toDto(i));
+			}
+			matched++;
+		}
+		return new PageImpl<>(content, pageable, filter ? matched : liveCount);
+	}
+
+	ProductDTO findById(long id) {
+		int i = indexOf(id);
+		return i < 0 ? null : toDto(i);
+	}
+
+	int indexOf(long id) {
+		int i = Arrays.binarySearch(ids, 0, size, id);
+		return i >= 0 && live.get(i) ? i : -1;
+	}
+
+	private ProductDTO toDto(int i) {
+		return new ProductDTO(ids[i], names[i], descriptions[i], Double.isNaN(prices[i]) ? null : prices[i], imgUrls[i],
+				dates[i] == Long.MIN_VALUE ? null : ProductRow.fromEpochMicros(dates[i]));
+	}
+
+	private int[] ordering(String property) {
+		RowOrder order = rowOrder(property);
+		if (order == null) {
+			return null;
+		}
+		int[] ordering = cached(property);
+		if (ordering == null) {
+			Integer[] boxed = new Integer[size];
+			for (int i = 0; i < size; i++) {
+				boxed[i] = i;
+			}
+			Arrays.sort(boxed, order::compare);
+			ordering = new int[size];
+			for (int i = 0; i < size; i++) {
+				ordering[i] = boxed[i];
+			}
+			cache(property, ordering);
+		}
+		return ordering;
+	}
+
+	// Empates pela posicao, que segue o id: ordem total, entao da para fazer merge e busca binaria
+	private RowOrder rowOrder(String property) {
+		RowOrder order;
+		switch (property) {
+		case "name":
+			order = (a, b) -> nameOrder.compare(names[a], names[b]);
+			break;
+		case "price":
+			order = (a, b) -> Double.compare(prices[a], prices[b]);
+			break;
+		case "date":
+			order = (a, b) -> Long.compare(dates[a], dates[b]);
+			break;
+		default:
+			return null;
+		}
+		return (a, b) -> {
+			int result = order.compare(a, b);
+			return result != 0 ? result : Integer.compare(a, b);
+		};
+	}
+
+	private int[] cached(String property) {
+		switch (property) {
+		case "name":
+			return byName;
+		case "price":
+			return byPrice;
+		case "date":
+			return byDate;
+		default:
+			return null;
+		}
+	}
+
+	private void cache(String property, int[] ordering) {
+		switch (property) {
+		case "name":
+			byName = ordering;
+			break;
+		case "price":
+			byPrice = ordering;
+			break;
+		case "date":
+			byDate = ordering;
+			break;
+		default:
+		}
+	}
+
+	/*
+	 * Aplica um lote de escritas de uma vez: as colunas sao copiadas uma unica vez por lote e as ordenacoes
+	 * ja calculadas sao corrigidas (tira as linhas alteradas, ordena so elas e intercala), sem reordenar tudo.
+	 */
+	ProductSnapshot apply(Collection<ProductRow> rows, Collection<Long> deletedIds) {
+		Map<Long, ProductRow> byId = new TreeMap<>();
+		rows.forEach(x -> byId.put(x.id, x));
+		List<ProductRow> batch = new ArrayList<>(byId.values());
+
+		int inserts = 0;
+		for (ProductRow row : batch) {
+			if (Arrays.binarySearch(ids, 0, size, row.id) < 0) {
+				inserts++;
+			}
+		}
+		int newSize = size + inserts;
+		long[] newIds = new long[newSize];
+		String[] newNames = new String[newSize];
+		String[] newDescriptions = new String[newSize];
+		String[] newImgUrls = new String[newSize];
+		double[] newPrices = new double[newSize];
+		long[] newDates = new long[newSize];
+		BitSet newLive = new BitSet(newSize);
+
+		// remap: posicao antiga -> nova; changed: posicoes novas das linhas do lote
+		int[] remap = new int[size];
+		int[] changed = new int[batch.size()];
+		BitSet changedBits = new BitSet(newSize);
+		int i = 0;
+		int j = 0;
+		for (int k = 0; k < newSize; k++) {
+			ProductRow row = j < batch.size() ? batch.get(j) : null;
+			if (row == null || (i < size && ids[i] < row.id)) {
+				newIds[k] = ids[i];
+				newNames[k] = names[i];
+				newDescriptions[k] = descriptions[i];
+				newImgUrls[k] = imgUrls[i];
+				newPrices[k] = prices[i];
+				newDates[k] = dates[i];
+				if (live.get(i)) {
+					newLive.set(k);
+				}
+				remap[i++] = k;
+				continue;
+			}
+			if (i < size && ids[i] == row.id) {
+				remap[i++] = k;
+			}
+			newIds[k] = row.id;
+			newNames[k] = row.name;
+			newDescriptions[k] = row.description;
+			newImgUrls[k] = row.imgUrl;
+			newPrices[k] = row.price;
+			newDates[k] = row.date;
+			newLive.set(k);
+			changed[j++] = k;
+			changedBits.set(k);
+		}
+		for (Long id : deletedIds) {
+			int pos = Arrays.binarySearch(newIds, 0, newSize, id);
+			if (pos >= 0 && !changedBits.get(pos)) {
+				newLive.clear(pos);
+			}
+		}
+
+		ProductSnapshot next = new ProductSnapshot(newSize, newIds, newNames, newDescriptions, newImgUrls, newPrices,
+				newDates, newLive, nameOrder);
+		for (String property : new String[] { "name", "price", "date" }) {
+			int[] ordering = cached(property);
+			if (ordering != null) {
+				next.cache(property, next.patch(ordering, remap, changed, changedBits, next.rowOrder(property)));
+			}
+		}
+		return next;
+	}
+
+	private int[] patch(int[] previous, int[] remap, int[] changed, BitSet changedBits, RowOrder order) {
+		Integer[] boxed = new Integer[changed.length];
+		for (int n = 0; n < changed.length; n++) {
+			boxed[n] = changed[n];
+		}
+		Arrays.sort(boxed, order::compare);
+
+		int[] result = new int[size];
+		int k = 0;
+		int c = 0;
+		for (int x : previous) {
+			int pos = remap[x];
+			if (changedBits.get(pos)) {
+				continue;
+			}
+			while (c < boxed.length && order.compare(boxed[c], pos) < 0) {
+				result[k++] = boxed[c++];
+			}
+			result[k++] = pos;
+		}
+		while (c < boxed.length) {
+			result[k++] = boxed[c++];
+		}
+		return result;
+	}
+
+	@FunctionalInterface
+	private interface RowOrder {
+
+		int compare(int a, int b);
+	}
+
+	public static class Builder {
+
+		private int size;
+		private long[] ids = new long[1024];
+		private String[] names = new String[1024];
+		private String[] descriptions = new String[1024];
+		private String[] imgUrls = new String[1024];
+		private double[] prices = new double[1024];
+		private long[] dates = new long[1024];
+		private final Map<String, String> strings = new HashMap<>();
+		private final Comparator<String> nameOrder;
+
+		public Builder() {
+			this(Comparator.naturalOrder());
+		}
+
+		public Builder(Comparator<String> nameOrder) {
+			this.nameOrder = Comparator.nullsFirst(nameOrder);
+		}
+
+		// As linhas devem ser adicionadas em ordem crescente de id
+		Builder add(ProductRow row) {
+			if (size == ids.length) {
+				int capacity = size * 2;
+				ids = Arrays.copyOf(ids, capacity);
+				names = Arrays.copyOf(names, capacity);
+				descriptions = Arrays.copyOf(descriptions, capacity);
+				imgUrls = Arrays.copyOf(imgUrls, capacity);
+				prices = Arrays.copyOf(prices, capacity);
+				dates = Arrays.copyOf(dates, capacity);
+			}
+			ids[size] = row.id;
+			names[size] = intern(row.name);
+			descriptions[size] = intern(row.description);
+			imgUrls[size] = intern(row.imgUrl);
+			prices[size] = row.price;
+			dates[size] = row.date;
+			size++;
+			return this;
+		}
+
+		// Descricoes e URLs se repetem muito no catalogo; cada texto distinto e guardado uma unica vez
+		private String intern(String value) {
+			if (value == null) {
+				return null;
+			}
+			String existing = strings.putIfAbsent(value, value);
+			return existing == null ? value : existing;
+		}
+
+		public ProductSnapshot build() {
+			BitSet live = new BitSet(size);
+			live.set(0, size);
+			return new ProductSnapshot(size, Arrays.copyOf(ids, size), Arrays.copyOf(names, size),
+					Arrays.copyOf(descriptions, size), Arrays.copyOf(imgUrls, size), Arrays.copyOf(prices, size),
+					Arrays.copyOf(dates, size), live, nameOrder);
+		}
+	}
+}
@@ -0,0 +1,188 @@
+package com.devsuperior.dscatalog.services.snapshot;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+
+/*
+ * As escritas so enfileiram o id: um worker de uma thread junta o que chegou, le as linhas em uma consulta
+ * e publica um unico snapshot novo. O writer nao paga a copia das colunas; a listagem pelo snapshot pode
+ * ficar alguns milissegundos atras do banco.
+ */
+@Service
+@ConditionalOnProperty(name = "catalog.snapshot.enabled", havingValue = "true")
+public class ProductSnapshotService {
+
+	private static Logger logger = LoggerFactory.getLogger(ProductSnapshotService.class);
+
+	private static final String PRODUCT_COLUMNS = "SELECT id, name, description, price, img_url, date FROM tb_product";
+
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+
+	@Value("${catalog.snapshot.batch-size:500}")
+	private int batchSize;
+
+	// Idioma da collation da coluna name (ex.: pt-BR); vazio ordena como o H2 padrao (String.compareTo)
+	@Value("${catalog.snapshot.collation:}")
+	private String collation;
+
+	// Enquanto o snapshot nao existe, supports() e falso e a listagem vai ao banco
+	@Value("${catalog.indexes.deferred-warm-up:false}")
+	private boolean deferredWarmUp;
+
+	private final AtomicReference<ProductSnapshot> current = new AtomicReference<>();
+	private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+	private final AtomicBoolean scheduled = new AtomicBoolean();
+
+	private ThreadPoolTaskExecutor worker;
+
+	@PostConstruct
+	public void init() {
+		worker = new ThreadPoolTaskExecutor();
+		worker.setCorePoolSize(1);
+		worker.setMaxPoolSize(1);
+		worker.setThreadNamePrefix("product-snapshot-");
+		worker.setDaemon(true);
+		worker.initialize();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		worker.shutdown();
+	}
+
+	public boolean supports(Pageable pageable) {
+		return current.get() != null && ProductSnapshot.supports(pageable);
+	}
+
+	public Page<ProductDTO> findAllPaged(Double minPrice, Double maxPrice, Pageable pageable) {
+		return current.get().findAllPaged(minPrice, maxPrice, pageable);
+	}
+
+	public ProductSnapshot getSnapshot() {
+		return current.get();
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void onApplicationReady() {
+		if (deferredWarmUp) {
+			worker.execute(this::rebuild);
+		}
+		else {
+			rebuild();
+		}
+	}
+
+	public synchronized void rebuild() {
+		long start = System.currentTimeMillis();
+		ProductSnapshot.Builder builder = new ProductSnapshot.Builder(nameOrder());
+
+		jdbcTemplate.query(PRODUCT_COLUMNS + " ORDER BY id", rs -> {
+			builder.add(mapRow(rs));
+		});
+
+		ProductSnapshot snapshot = builder.build();
+		current.set(snapshot);
+		logger.info("Product snapshot built with " + snapshot.size() + " products in "
+				+ (System.currentTimeMillis() - start) + " ms");
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		pending.add(event.getId());
+		if (scheduled.compareAndSet(false, true)) {
+			worker.execute(this::drain);
+		}
+	}
+
+	// Quem chegar depois de scheduled=false agenda outra execucao, entao nenhum id fica para tras
+	private void drain() {
+		scheduled.set(false);
+		try {
+			while (!pending.isEmpty()) {
+				List<Long> batch = new ArrayList<>(batchSize);
+				for (Iterator<Long> it = pending.iterator(); it.hasNext() && batch.size() < batchSize;) {
+					batch.add(it.next());
+					it.remove();
+				}
+				applyBatch(batch);
+			}
+		}
+		catch (RuntimeException e) {
+			logger.error("Product snapshot update failed, rebuilding", e);
+			rebuild();
+		}
+	}
+
+	synchronized void applyBatch(List<Long> ids) {
+		ProductSnapshot snapshot = current.get();
+		if (snapshot == null || ids.isEmpty()) {
+			return;
+		}
+
+		List<ProductRow> rows = loadRows(ids);
+		Set<Long> deleted = new HashSet<>(ids);
+		rows.forEach(x -> deleted.remove(x.id));
+
+		ProductSnapshot next = snapshot.apply(rows, deleted);
+		if (next.tombstones() > next.size() / 4) {
+			rebuild();
+			return;
+		}
+		current.set(next);
+	}
+
+	private List<ProductRow> loadRows(List<Long> ids) {
+		String in = String.join(",", Collections.nCopies(ids.size(), "?"));
+		return jdbcTemplate.query(PRODUCT_COLUMNS + " WHERE id IN (" + in + ")", (rs, rowNum) -> mapRow(rs), ids.toArray());
+	}
+
+	private Comparator<String> nameOrder() {
+		if (collation.isBlank()) {
+			return Comparator.naturalOrder();
+		}
+		Collator collator = Collator.getInstance(Locale.forLanguageTag(collation));
+		return collator::compare;
+	}
+
+	private static ProductRow mapRow(ResultSet rs) throws SQLException {
+		double price = rs.getDouble("price");
+		Double boxedPrice = rs.wasNull() ? null : price;
+		Timestamp date = rs.getTimestamp("date");
+		return new ProductRow(rs.getLong("id"), rs.getString("name"), rs.getString("description"), boxedPrice,
+				rs.getString("img_url"), date == null ? null : date.toInstant());
+	}
+}
@@ -0,0 +1,216 @@
+package com.devsuperior.dscatalog.services.stream;
+
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PreDestroy;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.devsuperior.dscatalog.dto.ProductChangeDTO;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Conexoes SSE abertas em /products/stream. A conexao fica em modo assincrono, sem segurar thread
+ * do servidor; cada assinante tem um buffer limitado que e esvaziado por um pool pequeno.
+ * Quem deixa o buffer encher e desconectado e, ao reconectar, deve se ressincronizar por /products/changes.
+ * Um send pode bloquear enquanto o cliente nao le; passado catalog.stream.send-timeout-ms o assinante e
+ * desconectado e a thread e liberada assim que a escrita falhar pelo timeout de socket do servidor.
+ */
+@Component
+public class ProductChangeStream {
+
+	private static Logger logger = LoggerFactory.getLogger(ProductChangeStream.class);
+
+	private static final Message HEARTBEAT = new Message(0L, null);
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Value("${catalog.stream.buffer-size:256}")
+	private int bufferSize;
+
+	@Value("${catalog.stream.timeout-ms:1800000}")
+	private long timeoutMs;
+
+	@Value("${catalog.stream.send-timeout-ms:5000}")
+	private long sendTimeoutMs;
+
+	@Autowired
+	@Qualifier("productStreamExecutor")
+	private Executor dispatcher;
+
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final AtomicLong sequence = new AtomicLong();
+	private final AtomicLong dropped = new AtomicLong();
+
+	// O pool e um bean do Spring e e encerrado por ele depois deste metodo
+	@PreDestroy
+	public void shutdown() {
+		subscribers.forEach(x -> {
+			if (!x.sending()) {
+				x.emitter.complete();
+			}
+		});
+		subscribers.clear();
+	}
+
+	public SseEmitter subscribe() {
+		SseEmitter emitter = new SseEmitter(timeoutMs);
+		Subscriber subscriber = new Subscriber(emitter, bufferSize);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(e -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	public int subscriberCount() {
+		return subscribers.size();
+	}
+
+	public long droppedCount() {
+		return dropped.get();
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onProductChanged(ProductChangedEvent event) {
+		if (subscribers.isEmpty()) {
+			return;
+		}
+		// Serializa uma vez so, qualquer que seja o numero de assinantes
+		String json;
+		try {
+			json = objectMapper.writeValueAsString(new ProductChangeDTO(event));
+		}
+		catch (JsonProcessingException e) {
+			logger.error("Could not serialize product change " + event.getId(), e);
+			return;
+		}
+		broadcast(new Message(sequence.incrementAndGet(), json));
+	}
+
+	// Comentario SSE periodico: mantem proxies sem fechar a conexao e detecta clientes que sumiram
+	@Scheduled(fixedDelayString = "${catalog.stream.heartbeat-ms:15000}")
+	public void heartbeat() {
+		broadcast(HEARTBEAT);
+	}
+
+	private void broadcast(Message message) {
+		long now = System.nanoTime();
+		for (Subscriber subscriber : subscribers) {
+			if (subscriber.stalled(now, TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs))) {
+				drop(subscriber);
+			}
+			else if (subscriber.queue.offer(message)) {
+				schedule(subscriber);
+			}
+			else {
+				drop(subscriber);
+			}
+		}
+	}
+
+	private void schedule(Subscriber subscriber) {
+		if (subscriber.scheduled.compareAndSet(false, true)) {
+			dispatcher.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void drain(Subscriber subscriber) {
+		do {
+			Message message;
+			while ((message = subscriber.queue.poll()) != null) {
+				subscriber.sendingSince = System.nanoTime();
+				try {
+					if (message == HEARTBEAT) {
+						subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+					}
+					else {
+						subscriber.emitter.send(SseEmitter.event().id(String.valueOf(message.id)).name("product")
+								.data(message.json, MediaType.APPLICATION_JSON));
+					}
+				}
+				catch (IOException | IllegalStateException e) {
+					subscribers.remove(subscriber);
+					return;
+				}
+				finally {
+					subscriber.sendingSince = 0L;
+				}
+				// Desconectado por lentidao enquanto o send estava bloqueado: agora da para fechar
+				if (!subscribers.contains(subscriber)) {
+					subscriber.queue.clear();
+					subscriber.emitter.complete();
+					return;
+				}
+			}
+			subscriber.scheduled.set(false);
+			// Mensagem que chegou entre o ultimo poll e o set(false) nao pode ficar parada na fila
+		} while (!subscriber.queue.isEmpty() && subscriber.scheduled.compareAndSet(false, true));
+	}
+
+	private void drop(Subscriber subscriber) {
+		if (subscribers.remove(subscriber)) {
+			dropped.incrementAndGet();
+			subscriber.queue.clear();
+			// complete() espera o send em andamento (mesmo lock); nesse caso quem fecha e o proprio drain
+			if (!subscriber.sending()) {
+				subscriber.emitter.complete();
+			}
+		}
+	}
+
+	private static class Message {
+
+		final long id;
+		final String json;
+
+		Message(long id, String json) {
+			this.id = id;
+			this.json = json;
+		}
+	}
+
+	private static class Subscriber {
+
+		final SseEmitter emitter;
+		final BlockingQueue<Message> queue;
+		final AtomicBoolean scheduled = new AtomicBoolean();
+
+		// System.nanoTime() do inicio do send em andamento; 0 quando nao ha send
+		volatile long sendingSince;
+
+		Subscriber(SseEmitter emitter, int bufferSize) {
+			this.emitter = emitter;
+			this.queue = new ArrayBlockingQueue<>(bufferSize);
+		}
+
+		boolean sending() {
+			return sendingSince != 0L;
+		}
+
+		boolean stalled(long now, long timeoutNanos) {
+			long since = sendingSince;
+			return since != 0L && now - since > timeoutNanos;
+		}
+	}
+}
@@ -0,0 +1,58 @@
+package com.devsuperior.dscatalog.services.sync;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+
+import com.devsuperior.dscatalog.services.exceptions.InvalidCursorException;
+
+/*
+ * Posicao no fluxo de alteracoes: "<instante ISO-8601>~<id>". O cliente pode mandar so o instante
+ * na primeira sincronizacao e depois repassar o cursor recebido.
+ */
+public final class ChangeCursor implements Comparable<ChangeCursor> {
+
+	public static final ChangeCursor START = new ChangeCursor(Instant.EPOCH, 0L);
+
+	private final Instant timestamp;
+	private final long id;
+
+	public ChangeCursor(Instant timestamp, long id) {
+		this.timestamp = timestamp;
+		this.id = id;
+	}
+
+	public static ChangeCursor parse(String value) {
+		if (value == null || value.isBlank()) {
+			return START;
+		}
+		try {
+			int idx = value.indexOf('~');
+			if (idx < 0) {
+				return new ChangeCursor(Instant.parse(value), 0L);
+			}
+			return new ChangeCursor(Instant.parse(value.substring(0, idx)), Long.parseLong(value.substring(idx + 1)));
+		}
+		catch (DateTimeParseException | NumberFormatException e) {
+			throw new InvalidCursorException("Invalid cursor " + value);
+		}
+	}
+
+	public Instant getTimestamp() {
+		return timestamp;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	@Override
+	public int compareTo(ChangeCursor other) {
+		int cmp = timestamp.compareTo(other.timestamp);
+		return cmp != 0 ? cmp : Long.compare(id, other.id);
+	}
+
+	@Override
+	public String toString() {
+		return timestamp + "~" + id;
+	}
+}
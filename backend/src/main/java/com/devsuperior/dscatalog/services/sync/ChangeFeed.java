@@ -0,0 +1,44 @@
+package com.devsuperior.dscatalog.services.sync;
+
+import java.util.List;
+import java.util.function.Function;
+
+import com.devsuperior.dscatalog.dto.ChangesDTO;
+import com.devsuperior.dscatalog.entities.Tombstone;
+
+public final class ChangeFeed {
+
+	private ChangeFeed() {
+	}
+
+	/*
+	 * Intercala alteracoes e remocoes (ambas ja ordenadas por cursor) e devolve no maximo "limit" itens.
+	 * O cursor retornado e o do ultimo item entregue.
+	 */
+	public static <T, D> ChangesDTO<D> merge(ChangeCursor start, int limit, List<T> changed,
+			Function<T, ChangeCursor> cursorOf, Function<T, D> mapper, List<Tombstone> deleted) {
+		ChangesDTO<D> result = new ChangesDTO<>();
+		ChangeCursor last = start;
+		int i = 0;
+		int j = 0;
+		while (i + j < limit && (i < changed.size() || j < deleted.size())) {
+			ChangeCursor next = i < changed.size() ? cursorOf.apply(changed.get(i)) : null;
+			ChangeCursor removed = j < deleted.size() ? tombstoneCursor(deleted.get(j)) : null;
+			if (removed == null || (next != null && next.compareTo(removed) < 0)) {
+				result.getChanged().add(mapper.apply(changed.get(i++)));
+				last = next;
+			}
+			else {
+				result.getDeleted().add(deleted.get(j++).getResourceId());
+				last = removed;
+			}
+		}
+		result.setCursor(last.toString());
+		result.setHasMore(i < changed.size() || j < deleted.size() || changed.size() == limit || deleted.size() == limit);
+		return result;
+	}
+
+	private static ChangeCursor tombstoneCursor(Tombstone tombstone) {
+		return new ChangeCursor(tombstone.getDeletedAt(), tombstone.getResourceId());
+	}
+}
@@ -0,0 +1,112 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.devsuperior.dscatalog.DscatalogApplication;
+
+/*
+ * Sobe a aplicacao (perfil test) no modo bloqueante e depois com catalog.async.enabled=true, mantendo
+ * sempre N requisicoes em aberto em GET /products e GET /products/{id}. Mostra vazao, latencia, pico de
+ * threads e de heap acima do repouso, e o heap por conexao aberta. Bulkheads e limitador ficam com os
+ * valores distribuidos, como em producao.
+ * java ... AsyncModeComparison [conexoes] [segundos] [threads Tomcat bloqueante] [threads Tomcat async]
+ */
+public class AsyncModeComparison {
+
+	public static void main(String[] args) throws Exception {
+		int connections = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 30;
+		int blockingThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+		int asyncThreads = args.length > 3 ? Integer.parseInt(args[3]) : 50;
+
+		System.out.printf("%-9s %8s %10s %10s %10s %8s %9s %9s %12s%n", "mode", "tomcat", "req/s", "p50 ms",
+				"p99 ms", "errors", "+threads", "+heap MB", "KB/conn");
+		run("blocking", false, blockingThreads, connections, seconds);
+		run("async", true, asyncThreads, connections, seconds);
+	}
+
+	private static void run(String mode, boolean async, int tomcatThreads, int connections, int seconds)
+			throws Exception {
+		ConfigurableApplicationContext context = new SpringApplicationBuilder(DscatalogApplication.class)
+				.properties(Map.of(
+						"server.port", "0",
+						"server.tomcat.threads.max", String.valueOf(tomcatThreads),
+						"server.tomcat.max-connections", String.valueOf(connections * 2),
+						"catalog.async.enabled", String.valueOf(async),
+						"logging.level.root", "WARN"))
+				.run();
+		String url = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+
+		ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+		MemoryMXBean memoryBean = ManagementFactory.getMemoryMXBean();
+		ExecutorService clientPool = Executors.newFixedThreadPool(4);
+		HttpClient client = HttpClient.newBuilder().executor(clientPool).version(HttpClient.Version.HTTP_1_1).build();
+
+		// Aquecimento e referencia de repouso
+		for (int i = 0; i < 200; i++) {
+			client.send(request(url), HttpResponse.BodyHandlers.discarding());
+		}
+		System.gc();
+		int baseThreads = threadBean.getThreadCount();
+		long baseHeap = memoryBean.getHeapMemoryUsage().getUsed();
+
+		LatencyRecorder recorder = new LatencyRecorder();
+		long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+		CountDownLatch done = new CountDownLatch(connections);
+		for (int i = 0; i < connections; i++) {
+			fire(client, url, recorder, end, done);
+		}
+
+		int peakThreads = 0;
+		long peakHeap = 0;
+		while (!done.await(500, TimeUnit.MILLISECONDS)) {
+			peakThreads = Math.max(peakThreads, threadBean.getThreadCount());
+			peakHeap = Math.max(peakHeap, memoryBean.getHeapMemoryUsage().getUsed());
+		}
+
+		long heapDelta = Math.max(0, peakHeap - baseHeap);
+		System.out.printf("%-9s %8d %10.1f %10.2f %10.2f %8d %9d %9.1f %12.1f%n", mode, tomcatThreads,
+				(double) recorder.getCount() / seconds, recorder.percentileMillis(50), recorder.percentileMillis(99),
+				recorder.getErrors(), Math.max(0, peakThreads - baseThreads), heapDelta / (1024.0 * 1024.0),
+				heapDelta / 1024.0 / connections);
+
+		clientPool.shutdownNow();
+		context.close();
+	}
+
+	// Cada "conexao" dispara a proxima requisicao assim que a anterior termina
+	private static void fire(HttpClient client, String url, LatencyRecorder recorder, long end, CountDownLatch done) {
+		long start = System.nanoTime();
+		client.sendAsync(request(url), HttpResponse.BodyHandlers.discarding()).whenComplete((response, e) -> {
+			recorder.record(System.nanoTime() - start, e == null && response.statusCode() == 200);
+			if (System.nanoTime() < end) {
+				fire(client, url, recorder, end, done);
+			}
+			else {
+				done.countDown();
+			}
+		});
+	}
+
+	private static HttpRequest request(String url) {
+		ThreadLocalRandom random = ThreadLocalRandom.current();
+		String path = random.nextBoolean() ? "/products/" + (1 + random.nextInt(25))
+				: "/products?page=" + random.nextInt(3) + "&size=12";
+		return HttpRequest.newBuilder(URI.create(url + path)).header("Accept", "application/json").GET().build();
+	}
+}
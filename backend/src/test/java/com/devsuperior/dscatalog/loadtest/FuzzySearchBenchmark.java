@@ -0,0 +1,43 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.util.Random;
+
+import com.devsuperior.dscatalog.services.index.TrigramIndex;
+
+/*
+ * Mede memoria e latencia da busca por trigramas: java ... FuzzySearchBenchmark [nomes] [consultas] [candidatos]
+ */
+public class FuzzySearchBenchmark {
+
+	private static final String[] WORDS = { "pc", "gamer", "notebook", "macbook", "smart", "tv", "pro", "max",
+			"ultra", "livro", "mouse", "teclado", "monitor", "cadeira", "fone", "console" };
+
+	private static final String[] TYPOS = { "makbook", "notebok", "gamr", "teclao", "moniter", "consle", "smrt tv" };
+
+	public static void main(String[] args) {
+		int names = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		int maxCandidates = args.length > 2 ? Integer.parseInt(args[2]) : 5_000;
+		Random random = new Random(42);
+
+		long start = System.nanoTime();
+		TrigramIndex.Builder builder = new TrigramIndex.Builder();
+		for (int i = 0; i < names; i++) {
+			builder.add(i, WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i);
+		}
+		TrigramIndex index = builder.build();
+		System.out.printf("built %d names in %d ms, index footprint %.1f MB%n", index.size(),
+				(System.nanoTime() - start) / 1_000_000, index.memoryBytes() / (1024.0 * 1024.0));
+
+		LatencyRecorder recorder = new LatencyRecorder();
+		for (int i = 0; i < queries; i++) {
+			String query = TYPOS[random.nextInt(TYPOS.length)];
+			long t = System.nanoTime();
+			index.search(TrigramIndex.trigrams(query), 0.3, maxCandidates, id -> false);
+			recorder.record(System.nanoTime() - t, true);
+		}
+		System.out.printf("%d queries (max %d candidates): p50 %.3f ms, p99 %.3f ms, p999 %.3f ms%n",
+				recorder.getCount(), maxCandidates, recorder.percentileMillis(50), recorder.percentileMillis(99),
+				recorder.percentileMillis(99.9));
+	}
+}
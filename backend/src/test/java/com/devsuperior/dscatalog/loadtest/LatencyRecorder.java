@@ -0,0 +1,38 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.util.Arrays;
+
+public class LatencyRecorder {
+
+	private long[] samples = new long[1024];
+	private int count;
+	private int errors;
+
+	public synchronized void record(long nanos, boolean success) {
+		if (!success) {
+			errors++;
+		}
+		if (count == samples.length) {
+			samples = Arrays.copyOf(samples, count * 2);
+		}
+		samples[count++] = nanos;
+	}
+
+	public synchronized int getCount() {
+		return count;
+	}
+
+	public synchronized int getErrors() {
+		return errors;
+	}
+
+	public synchronized double percentileMillis(double percentile) {
+		if (count == 0) {
+			return 0.0;
+		}
+		long[] sorted = Arrays.copyOf(samples, count);
+		Arrays.sort(sorted);
+		int index = (int) Math.ceil(percentile / 100.0 * count) - 1;
+		return sorted[Math.max(0, Math.min(index, count - 1))] / 1_000_000.0;
+	}
+}
@@ -0,0 +1,217 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/*
+ * Gerador de carga para uma instancia ja em execucao (ex.: APP_PROFILE=test,loadtest).
+ * Argumentos no formato chave=valor:
+ *   url=http://localhost:8080 threads=32 duration=60 warmup=10 products=1000000
+ *   mix=token:1,list:50,detail:45,insert:2,update:2
+ *   username=maria@gmail.com password=123456 client=dscatalog secret=dscatalog123
+ * Respostas 503 (carga recusada pelo limitador) sao contadas a parte; ao final imprime GET /limits.
+ */
+public class LoadDriver {
+
+	private static final String[] OPERATIONS = { "token", "list", "detail", "insert", "update" };
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+	private final Map<String, String> params;
+	private final Map<String, LatencyRecorder> recorders = new LinkedHashMap<>();
+	private final Map<String, LongAdder> shed = new HashMap<>();
+	private final int[] weights = new int[OPERATIONS.length];
+	private int totalWeight;
+	private volatile String accessToken;
+
+	public LoadDriver(Map<String, String> params) {
+		this.params = params;
+		for (String op : OPERATIONS) {
+			recorders.put(op, new LatencyRecorder());
+			shed.put(op, new LongAdder());
+		}
+		for (String entry : param("mix", "token:1,list:50,detail:45,insert:2,update:2").split(",")) {
+			String[] pair = entry.split(":");
+			for (int i = 0; i < OPERATIONS.length; i++) {
+				if (OPERATIONS[i].equals(pair[0].trim())) {
+					weights[i] = Integer.parseInt(pair[1].trim());
+				}
+			}
+		}
+		for (int w : weights) {
+			totalWeight += w;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		Map<String, String> params = new HashMap<>();
+		for (String arg : args) {
+			int idx = arg.indexOf('=');
+			if (idx > 0) {
+				params.put(arg.substring(0, idx), arg.substring(idx + 1));
+			}
+		}
+		new LoadDriver(params).run();
+	}
+
+	public void run() throws Exception {
+		int threads = Integer.parseInt(param("threads", "32"));
+		long warmup = Long.parseLong(param("warmup", "10"));
+		long duration = Long.parseLong(param("duration", "60"));
+
+		accessToken = requestToken();
+
+		long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(warmup);
+		long end = warmupEnd + TimeUnit.SECONDS.toNanos(duration);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		for (int i = 0; i < threads; i++) {
+			executor.submit(() -> {
+				while (System.nanoTime() < end) {
+					String op = nextOperation();
+					long start = System.nanoTime();
+					boolean success = execute(op);
+					if (start >= warmupEnd) {
+						recorders.get(op).record(System.nanoTime() - start, success);
+					}
+				}
+			});
+		}
+		executor.shutdown();
+		executor.awaitTermination(warmup + duration + 60, TimeUnit.SECONDS);
+
+		report(duration);
+	}
+
+	private String nextOperation() {
+		int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+		for (int i = 0; i < OPERATIONS.length; i++) {
+			pick -= weights[i];
+			if (pick < 0) {
+				return OPERATIONS[i];
+			}
+		}
+		return OPERATIONS[OPERATIONS.length - 1];
+	}
+
+	private boolean execute(String op) {
+		try {
+			switch (op) {
+			case "token":
+				return requestToken() != null;
+			case "list":
+				int page = ThreadLocalRandom.current().nextInt(Integer.parseInt(param("pages", "100")));
+				return expect(op, send(get("/products?page=" + page + "&size=12&sort=name,asc")), 200);
+			case "detail":
+				return expect(op, send(get("/products/" + randomProductId())), 200);
+			case "insert":
+				return expect(op, send(authorized("/products").POST(productBody())), 201);
+			case "update":
+				return expect(op, send(authorized("/products/" + randomProductId()).PUT(productBody())), 200);
+			default:
+				return false;
+			}
+		}
+		catch (Exception e) {
+			return false;
+		}
+	}
+
+	private boolean expect(String op, int status, int expected) {
+		if (status == 503) {
+			shed.get(op).increment();
+		}
+		return status == expected;
+	}
+
+	private String requestToken() throws Exception {
+		String form = "grant_type=password&username=" + encode(param("username", "maria@gmail.com"))
+				+ "&password=" + encode(param("password", "123456"));
+		String basic = Base64.getEncoder().encodeToString(
+				(param("client", "dscatalog") + ":" + param("secret", "dscatalog123")).getBytes(StandardCharsets.UTF_8));
+		HttpRequest request = HttpRequest.newBuilder(URI.create(param("url", "http://localhost:8080") + "/oauth/token"))
+				.header("Authorization", "Basic " + basic)
+				.header("Content-Type", "application/x-www-form-urlencoded")
+				.POST(HttpRequest.BodyPublishers.ofString(form))
+				.build();
+		HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+		if (response.statusCode() != 200) {
+			return null;
+		}
+		JsonNode node = objectMapper.readTree(response.body());
+		return node.path("access_token").asText(null);
+	}
+
+	private HttpRequest.Builder get(String path) {
+		return HttpRequest.newBuilder(URI.create(param("url", "http://localhost:8080") + path))
+				.header("Accept", "application/json").GET();
+	}
+
+	private HttpRequest.Builder authorized(String path) {
+		return HttpRequest.newBuilder(URI.create(param("url", "http://localhost:8080") + path))
+				.header("Authorization", "Bearer " + accessToken)
+				.header("Content-Type", "application/json")
+				.header("Accept", "application/json");
+	}
+
+	private int send(HttpRequest.Builder builder) throws Exception {
+		return client.send(builder.build(), HttpResponse.BodyHandlers.discarding()).statusCode();
+	}
+
+	private HttpRequest.BodyPublisher productBody() {
+		int n = ThreadLocalRandom.current().nextInt(1_000_000);
+		String json = "{\"name\":\"Load product " + n + "\",\"description\":\"Generated by load driver\","
+				+ "\"price\":" + (n % 5000 + 1) + ".0,\"imgUrl\":\"https://img.com/" + n + ".jpg\","
+				+ "\"date\":\"2020-07-14T10:00:00Z\",\"categories\":[{\"id\":1}]}";
+		return HttpRequest.BodyPublishers.ofString(json);
+	}
+
+	private long randomProductId() {
+		return 1 + ThreadLocalRandom.current().nextLong(Long.parseLong(param("products", "25")));
+	}
+
+	private String param(String key, String defaultValue) {
+		return params.getOrDefault(key, defaultValue);
+	}
+
+	private static String encode(String value) {
+		return URLEncoder.encode(value, StandardCharsets.UTF_8);
+	}
+
+	private void report(long durationSeconds) {
+		System.out.printf("%-8s %10s %10s %8s %8s %10s %10s %10s%n", "op", "requests", "req/s", "errors", "503",
+				"p50 ms", "p99 ms", "p999 ms");
+		for (Map.Entry<String, LatencyRecorder> entry : recorders.entrySet()) {
+			LatencyRecorder r = entry.getValue();
+			if (r.getCount() == 0) {
+				continue;
+			}
+			System.out.printf("%-8s %10d %10.1f %8d %8d %10.2f %10.2f %10.2f%n", entry.getKey(), r.getCount(),
+					(double) r.getCount() / durationSeconds, r.getErrors(), shed.get(entry.getKey()).sum(),
+					r.percentileMillis(50), r.percentileMillis(99), r.percentileMillis(99.9));
+		}
+		try {
+			System.out.println("limits: " + client.send(get("/limits").build(), HttpResponse.BodyHandlers.ofString()).body());
+		}
+		catch (Exception e) {
+			System.out.println("limits: unavailable (" + e.getMessage() + ")");
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.PageDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/*
+ * Bytes e tempo de serializacao por resposta: Page do Spring x PageDTO.
+ * java ... PageEnvelopeBenchmark [itens por pagina] [iteracoes]
+ */
+public class PageEnvelopeBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int items = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+		ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule())
+				.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+		PageImpl<ProductDTO> page = page(items);
+		run("spring page", mapper, page, iterations);
+		run("page dto", mapper, PageDTO.of(page), iterations);
+	}
+
+	private static void run(String name, ObjectMapper mapper, Object value, int iterations) throws Exception {
+		int bytes = mapper.writeValueAsBytes(value).length;
+		// Aquecimento do JIT antes de medir
+		for (int i = 0; i < iterations / 4; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+
+		LatencyRecorder recorder = new LatencyRecorder();
+		for (int i = 0; i < iterations; i++) {
+			long t = System.nanoTime();
+			mapper.writeValueAsBytes(value);
+			recorder.record(System.nanoTime() - t, true);
+		}
+		System.out.printf("%-11s %6d bytes  p50 %.4f ms  p99 %.4f ms%n", name, bytes, recorder.percentileMillis(50),
+				recorder.percentileMillis(99));
+	}
+
+	private static PageImpl<ProductDTO> page(int items) {
+		List<ProductDTO> content = new ArrayList<>();
+		for (int i = 1; i <= items; i++) {
+			ProductDTO dto = new ProductDTO((long) i, "Product " + i, "Generated product " + i, 100.0 + i,
+					"https://img.com/" + i + ".jpg", Instant.parse("2020-07-14T10:00:00Z"));
+			dto.setVersion(0L);
+			dto.getCategories().add(new CategoryDTO((long) (i % 3 + 1), "Category " + (i % 3 + 1)));
+			content.add(dto);
+		}
+		return new PageImpl<>(content, PageRequest.of(2, items, Sort.by("name")), 25_000L);
+	}
+}
@@ -0,0 +1,90 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+/*
+ * Tamanho e tempo de codificar/decodificar uma pagina de produtos em JSON, CBOR e Smile:
+ * java ... PayloadFormatBenchmark [itens] [iteracoes]
+ */
+public class PayloadFormatBenchmark {
+
+	public static void main(String[] args) throws Exception {
+		int items = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+		int iterations = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+		PageImpl<ProductDTO> page = page(items);
+
+		SmileFactory smile = new SmileFactory();
+		smile.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+		run("json", mapper(new ObjectMapper()), page, iterations);
+		run("cbor", mapper(new ObjectMapper(new CBORFactory())), page, iterations);
+		run("smile", mapper(new ObjectMapper(smile)), page, iterations);
+	}
+
+	private static void run(String name, ObjectMapper mapper, PageImpl<ProductDTO> page, int iterations)
+			throws Exception {
+		byte[] bytes = mapper.writeValueAsBytes(page);
+		// Aquecimento do JIT antes de medir
+		for (int i = 0; i < iterations / 4; i++) {
+			mapper.readValue(mapper.writeValueAsBytes(page), PageEnvelope.class);
+		}
+
+		LatencyRecorder encode = new LatencyRecorder();
+		LatencyRecorder decode = new LatencyRecorder();
+		for (int i = 0; i < iterations; i++) {
+			long t = System.nanoTime();
+			mapper.writeValueAsBytes(page);
+			encode.record(System.nanoTime() - t, true);
+
+			t = System.nanoTime();
+			mapper.readValue(bytes, PageEnvelope.class);
+			decode.record(System.nanoTime() - t, true);
+		}
+		System.out.printf("%-5s %8d bytes  encode p50 %.3f ms p99 %.3f ms  decode p50 %.3f ms p99 %.3f ms%n", name,
+				bytes.length, encode.percentileMillis(50), encode.percentileMillis(99), decode.percentileMillis(50),
+				decode.percentileMillis(99));
+	}
+
+	private static ObjectMapper mapper(ObjectMapper mapper) {
+		return mapper.registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+	}
+
+	private static PageImpl<ProductDTO> page(int items) {
+		String[] categories = { "Livros", "Eletrônicos", "Computadores" };
+		List<ProductDTO> content = new ArrayList<>();
+		for (int i = 1; i <= items; i++) {
+			ProductDTO dto = new ProductDTO((long) i, "Product " + i, "Lorem ipsum dolor sit amet, consectetur "
+					+ "adipiscing elit, sed do eiusmod tempor incididunt ut labore et dolore magna aliqua.",
+					100.0 + i * 0.5, "https://img.com/" + i + ".jpg", Instant.parse("2020-07-14T10:00:00Z"));
+			dto.setVersion(0L);
+			dto.getCategories().add(new CategoryDTO((long) (i % 3 + 1), categories[i % 3]));
+			content.add(dto);
+		}
+		return new PageImpl<>(content, PageRequest.of(0, items), items * 25L);
+	}
+
+	// O que um consumidor le da pagina
+	@JsonIgnoreProperties(ignoreUnknown = true)
+	public static class PageEnvelope {
+
+		public List<ProductDTO> content;
+		public long totalElements;
+		public int totalPages;
+		public int number;
+		public int size;
+	}
+}
@@ -0,0 +1,88 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Tempo ate a primeira resposta 200 em GET /products/1, medido de fora: do lancamento do processo
+ * ate a resposta. Compara a subida normal (perfil test) com o perfil faststart + arquivo CDS, usando
+ * o mesmo classpath. Requer mvn -Pfaststart package antes.
+ * java ... StartupComparison [execucoes] [diretorio target/faststart]
+ */
+public class StartupComparison {
+
+	private static final String MAIN_CLASS = "com.devsuperior.dscatalog.DscatalogApplication";
+
+	public static void main(String[] args) throws Exception {
+		int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+		File dir = new File(args.length > 1 ? args[1] : "target/faststart");
+		File jar = new File(dir.getParentFile(), "dscatalog-0.0.1-SNAPSHOT.jar");
+		if (!new File(dir, "app.jsa").exists() || !jar.exists()) {
+			throw new IllegalStateException("Run mvn -Pfaststart package first (missing " + dir + "/app.jsa)");
+		}
+		String classpath = "../" + jar.getName() + File.pathSeparator + "lib/*";
+
+		double baseline = median(dir, runs, List.of("-Dspring.profiles.active=test", "-cp", classpath, MAIN_CLASS));
+		double fast = median(dir, runs, List.of("-XX:SharedArchiveFile=app.jsa",
+				"-Dspring.profiles.active=test,faststart", "-cp", classpath, MAIN_CLASS));
+
+		System.out.printf("%-10s %12s%n", "mode", "first 200 ms");
+		System.out.printf("%-10s %12.0f%n", "default", baseline);
+		System.out.printf("%-10s %12.0f%n", "faststart", fast);
+		System.out.printf("speedup %.2fx (target 2x)%n", baseline / fast);
+	}
+
+	private static double median(File dir, int runs, List<String> jvmArgs) throws Exception {
+		double[] times = new double[runs];
+		for (int i = 0; i < runs; i++) {
+			times[i] = timeToFirstRequest(dir, jvmArgs);
+		}
+		Arrays.sort(times);
+		return times[runs / 2];
+	}
+
+	private static double timeToFirstRequest(File dir, List<String> jvmArgs) throws Exception {
+		int port;
+		try (ServerSocket socket = new ServerSocket(0)) {
+			port = socket.getLocalPort();
+		}
+		List<String> command = new ArrayList<>();
+		command.add(System.getProperty("java.home") + "/bin/java");
+		command.add("-Dserver.port=" + port);
+		command.addAll(jvmArgs);
+
+		HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofMillis(200)).build();
+		HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/products/1")).GET().build();
+
+		long start = System.nanoTime();
+		Process process = new ProcessBuilder(command).directory(dir).redirectErrorStream(true)
+				.redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+		try {
+			while (process.isAlive()) {
+				try {
+					if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+						return (System.nanoTime() - start) / 1_000_000.0;
+					}
+				}
+				catch (IOException e) {
+					// Ainda subindo
+				}
+				Thread.sleep(10);
+			}
+			throw new IllegalStateException("Application exited with code " + process.exitValue());
+		}
+		finally {
+			process.destroy();
+			process.waitFor();
+		}
+	}
+}
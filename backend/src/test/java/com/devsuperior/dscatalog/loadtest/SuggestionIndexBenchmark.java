@@ -0,0 +1,41 @@
+package com.devsuperior.dscatalog.loadtest;
+
+import java.util.Random;
+
+import com.devsuperior.dscatalog.services.index.NameSuggestionIndex;
+
+/*
+ * Mede memoria e latencia do indice de sugestoes: java ... SuggestionIndexBenchmark [nomes] [consultas]
+ */
+public class SuggestionIndexBenchmark {
+
+	private static final String[] WORDS = { "pc", "gamer", "notebook", "macbook", "smart", "tv", "pro", "max",
+			"ultra", "livro", "mouse", "teclado", "monitor", "cadeira", "fone", "console" };
+
+	public static void main(String[] args) {
+		int names = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+		int queries = args.length > 1 ? Integer.parseInt(args[1]) : 100_000;
+		Random random = new Random(42);
+
+		long start = System.nanoTime();
+		NameSuggestionIndex.Builder builder = new NameSuggestionIndex.Builder();
+		for (int i = 0; i < names; i++) {
+			String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+			builder.add(i, name, random.nextDouble() * 5000);
+		}
+		NameSuggestionIndex index = builder.build();
+		System.out.printf("built %d names in %d ms, index footprint %.1f MB%n", index.size(),
+				(System.nanoTime() - start) / 1_000_000, index.memoryBytes() / (1024.0 * 1024.0));
+
+		LatencyRecorder recorder = new LatencyRecorder();
+		for (int i = 0; i < queries; i++) {
+			String word = WORDS[random.nextInt(WORDS.length)];
+			String prefix = word.substring(0, 1 + random.nextInt(word.length()));
+			long t = System.nanoTime();
+			index.suggest(prefix, 10, id -> false);
+			recorder.record(System.nanoTime() - t, true);
+		}
+		System.out.printf("%d queries: p50 %.3f ms, p99 %.3f ms, p999 %.3f ms%n", recorder.getCount(),
+				recorder.percentileMillis(50), recorder.percentileMillis(99), recorder.percentileMillis(99.9));
+	}
+}
@@ -50,6 +50,24 @@ public class ProductRepositoryTests {
 		
 	}
 	
+	@Test
+	public void deleteDirectlyByIdShouldRemoveProductAndCategoryLinksWhenIdExists() {
+		
+		int links = repository.deleteCategoryLinks(existingId);
+		int deleted = repository.deleteDirectlyById(existingId);
+		
+		Assertions.assertEquals(1, links);
+		Assertions.assertEquals(1, deleted);
+		Assertions.assertFalse(repository.existsById(existingId));
+	}
+	
+	@Test
+	public void deleteDirectlyByIdShouldReturnZeroWhenIdDoesNotExists() {
+		
+		Assertions.assertEquals(0, repository.deleteCategoryLinks(nonExistingId));
+		Assertions.assertEquals(0, repository.deleteDirectlyById(nonExistingId));
+	}
+	
 	@Test
 	public void saveShouldPersistWithAutoincrementWhenIdIsNull() {
 		
@@ -0,0 +1,142 @@
+package com.devsuperior.dscatalog.resources;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.tests.Factory;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+// Margem curta para o teste ver as proprias escritas sem esperar o padrao de 1s
+@SpringBootTest(properties = "catalog.changes.safety-lag-ms=200")
+@AutoConfigureMockMvc
+@Transactional
+public class ChangesResourceIntegrationTest {
+
+	@Autowired
+	private MockMvc mockMvc;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	@Autowired
+	private ProductService productService;
+
+	@Autowired
+	private CategoryService categoryService;
+
+	private long safetyLagMs;
+	private String since;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		safetyLagMs = 200L;
+		// Um pouco antes das escritas do teste; as linhas do import.sql sao mais antigas
+		since = Instant.now().minusMillis(1).toString();
+	}
+
+	@Test
+	public void productChangesShouldListEveryChangeOnceAcrossPages() throws Exception {
+		ProductDTO inserted = productService.insert(newProduct("Changes Inserted"));
+		ProductDTO updated = productService.insert(newProduct("Changes Updated"));
+		ProductDTO removed = productService.insert(newProduct("Changes Removed"));
+		updated.setPrice(updated.getPrice() + 1.0);
+		productService.update(updated, updated.getId(), null);
+		productService.delete(removed.getId());
+
+		// Ainda dentro da margem de seguranca: nada e entregue
+		JsonNode early = changes("/products/changes", since, 10);
+		Assertions.assertEquals(0, early.get("changed").size());
+		Assertions.assertEquals(0, early.get("deleted").size());
+		Assertions.assertEquals(since + "~0", early.get("cursor").asText());
+
+		Thread.sleep(safetyLagMs + 50);
+		Map<Long, Integer> changed = new HashMap<>();
+		List<Long> deleted = new ArrayList<>();
+		int pages = readAll("/products/changes", 2, changed, deleted);
+
+		Assertions.assertEquals(Map.of(inserted.getId(), 1, updated.getId(), 1), changed);
+		Assertions.assertEquals(List.of(removed.getId()), deleted);
+		Assertions.assertTrue(pages >= 2);
+	}
+
+	@Test
+	public void categoryChangesShouldListEveryChangeOnceAcrossPages() throws Exception {
+		CategoryDTO inserted = categoryService.insert(new CategoryDTO(null, "Changes Inserted"));
+		CategoryDTO updated = categoryService.insert(new CategoryDTO(null, "Changes Updated"));
+		CategoryDTO removed = categoryService.insert(new CategoryDTO(null, "Changes Removed"));
+		categoryService.update(new CategoryDTO(null, "Changes Renamed"), updated.getId(), null);
+		categoryService.delete(removed.getId());
+
+		Thread.sleep(safetyLagMs + 50);
+		Map<Long, Integer> changed = new HashMap<>();
+		List<Long> deleted = new ArrayList<>();
+		readAll("/categories/changes", 1, changed, deleted);
+
+		Assertions.assertEquals(Map.of(inserted.getId(), 1, updated.getId(), 1), changed);
+		Assertions.assertEquals(List.of(removed.getId()), deleted);
+	}
+
+	@Test
+	public void changesShouldClampLimitToAtLeastOneItem() throws Exception {
+		productService.insert(newProduct("Changes First"));
+		productService.insert(newProduct("Changes Second"));
+
+		Thread.sleep(safetyLagMs + 50);
+		JsonNode result = changes("/products/changes", since, 0);
+
+		Assertions.assertEquals(1, result.get("changed").size());
+		Assertions.assertTrue(result.get("hasMore").asBoolean());
+	}
+
+	// Segue o cursor ate hasMore=false, contando quantas vezes cada id apareceu
+	private int readAll(String path, int limit, Map<Long, Integer> changed, List<Long> deleted) throws Exception {
+		String cursor = since;
+		int pages = 0;
+		boolean hasMore = true;
+		while (hasMore) {
+			Assertions.assertTrue(++pages < 50, "cursor did not advance");
+			JsonNode page = changes(path, cursor, limit);
+			page.get("changed").forEach(x -> changed.merge(x.get("id").asLong(), 1, Integer::sum));
+			page.get("deleted").forEach(x -> deleted.add(x.asLong()));
+			cursor = page.get("cursor").asText();
+			hasMore = page.get("hasMore").asBoolean();
+		}
+		return pages;
+	}
+
+	private JsonNode changes(String path, String cursor, int limit) throws Exception {
+		String body = mockMvc.perform(get(path).param("since", cursor).param("limit", String.valueOf(limit))
+				.accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		return objectMapper.readTree(body);
+	}
+
+	private static ProductDTO newProduct(String name) {
+		ProductDTO dto = Factory.createProductDTO();
+		dto.setId(null);
+		dto.setName(name);
+		return dto;
+	}
+}
@@ -1,5 +1,6 @@
 package com.devsuperior.dscatalog.resources;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
@@ -12,6 +13,8 @@ import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMock
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -45,11 +48,11 @@ public class ProductResouceIntegrationTest {
 	@Test
 	public void findAllPagedShouldReturnSortedPageWhenSortByName() throws Exception{
 		ResultActions result =
-                mockMvc.perform(get("/products?page=0&size=12&sort=name,asc")
+                read(get("/products?page=0&size=12&sort=name,asc")
 	             .accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isOk());
-		result.andExpect(jsonPath("$.totalElements").value(countTotalProducts));
+		result.andExpect(jsonPath("$.total").value(countTotalProducts));
 		result.andExpect(jsonPath("$.content").exists());
 		result.andExpect(jsonPath("$.content[0].name").value("Macbook Pro"));
 		result.andExpect(jsonPath("$.content[1].name").value("PC Gamer"));
@@ -95,4 +98,10 @@ public class ProductResouceIntegrationTest {
 		 result.andExpect(status().isNotFound());
     }
 
+	// Leituras devolvem CompletableFuture: o corpo so e escrito no dispatch assincrono
+	private ResultActions read(RequestBuilder request) throws Exception {
+		ResultActions result = mockMvc.perform(request);
+		MvcResult mvcResult = result.andReturn();
+		return mvcResult.getRequest().isAsyncStarted() ? mockMvc.perform(asyncDispatch(mvcResult)) : result;
+	}
 }
@@ -6,31 +6,40 @@ import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import java.util.List;
 
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.ArgumentMatchers;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
 import org.springframework.test.web.servlet.ResultActions;
 
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.services.ProductService;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
 import com.devsuperior.dscatalog.tests.Factory;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
 
 @WebMvcTest(ProductResource.class)
 public class ProductResourceTests {
@@ -47,6 +56,7 @@ public class ProductResourceTests {
 	private long existingId;
 	private long nonExistingId;
 	private long dependentId;
+	private long staleVersion;
 	private PageImpl<ProductDTO> page;
 	private ProductDTO productDTO;
 	
@@ -55,18 +65,20 @@ public class ProductResourceTests {
 		existingId = 1L;
 		nonExistingId = 1000L;
 		dependentId = 4L;
+		staleVersion = 5L;
 		productDTO = Factory.createProductDTO();
 		page = new PageImpl<>(List.of(productDTO));
 		
-		when(service.findAllPaged(ArgumentMatchers.any())).thenReturn(page);
+		when(service.findAllPaged(any(), any(), any())).thenReturn(page);
 		
 		when(service.insert(any())).thenReturn(productDTO);
 		
 		when(service.findById(existingId)).thenReturn(productDTO);
 		when(service.findById(nonExistingId)).thenThrow(ResourceNotFoundException.class);
 		
-		when(service.update(any(), eq(existingId))).thenReturn(productDTO);
-		when(service.update(any(), eq(nonExistingId))).thenThrow(ResourceNotFoundException.class);
+		when(service.update(any(), eq(existingId), any())).thenReturn(productDTO);
+		when(service.update(any(), eq(existingId), eq(staleVersion))).thenThrow(PreconditionFailedException.class);
+		when(service.update(any(), eq(nonExistingId), any())).thenThrow(ResourceNotFoundException.class);
 		
 	    doNothing().when(service).delete(existingId);
 		doThrow(ResourceNotFoundException.class).when(service).delete(nonExistingId);
@@ -77,17 +89,46 @@ public class ProductResourceTests {
 	public void findAllPagedShouldReturnPage() throws Exception {
 		
 		ResultActions result =
-		                     mockmvc.perform(get("/products")
+		                     read(get("/products")
 				             .accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isOk());
 	}
 	
+	@Test
+	public void findAllPagedShouldReturnLeanEnvelope() throws Exception {
+		
+		ResultActions result =
+		                     read(get("/products")
+				             .accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(jsonPath("$.content[0].name").value(productDTO.getName()));
+		result.andExpect(jsonPath("$.page").value(0));
+		result.andExpect(jsonPath("$.hasNext").value(false));
+		result.andExpect(jsonPath("$.total").value(1));
+		result.andExpect(jsonPath("$.pageable").doesNotExist());
+		result.andExpect(jsonPath("$.sort").doesNotExist());
+	}
+	
+	@Test
+	public void searchShouldReturnServiceUnavailableWithRetryAfterWhenOverloaded() throws Exception {
+		
+		when(service.search(eq("overload"), any())).thenThrow(new ServiceOverloadedException("Too many", 1));
+		
+		ResultActions result =
+		                     read(get("/products/search?q=overload")
+				             .accept(MediaType.APPLICATION_JSON));
+		
+		result.andExpect(status().isServiceUnavailable());
+		result.andExpect(header().string("Retry-After", "1"));
+	}
+	
 	@Test
 	public void findByIdShouldReturnProductWheIdExists() throws Exception {
 		
 		ResultActions result =
-		                     mockmvc.perform(get("/products/{id}", existingId)
+		                     read(get("/products/{id}", existingId)
 				             .accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isOk());
@@ -96,11 +137,39 @@ public class ProductResourceTests {
 		result.andExpect(jsonPath("$.description").exists());
 	}
 	
+	@Test
+	public void findByIdShouldReturnCborWhenAccepted() throws Exception {
+		
+		ResultActions result =
+		                     read(get("/products/{id}", existingId)
+				             .accept(MediaType.APPLICATION_CBOR));
+		
+		result.andExpect(status().isOk());
+		result.andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_CBOR));
+		
+		byte[] body = result.andReturn().getResponse().getContentAsByteArray();
+		JsonNode node = new CBORMapper().readTree(body);
+		Assertions.assertEquals(productDTO.getName(), node.get("name").asText());
+	}
+	
+	@Test
+	public void acceptsGzipShouldHonorQualityValues() {
+		
+		Assertions.assertTrue(ProductResource.acceptsGzip("gzip, deflate, br"));
+		Assertions.assertTrue(ProductResource.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		Assertions.assertTrue(ProductResource.acceptsGzip("*"));
+		Assertions.assertFalse(ProductResource.acceptsGzip(null));
+		Assertions.assertFalse(ProductResource.acceptsGzip("gzip;q=0"));
+		Assertions.assertFalse(ProductResource.acceptsGzip("x-gzip-foo, deflate"));
+		Assertions.assertFalse(ProductResource.acceptsGzip("*;q=1, gzip;q=0.0"));
+		Assertions.assertFalse(ProductResource.acceptsGzip("identity"));
+	}
+	
 	@Test
 	public void findByIdShouldReturnNotFoundWheIdDoesNotExists() throws Exception {
 		
 		 ResultActions result =
-		                     mockmvc.perform(get("/products/{id}", nonExistingId)
+		                     read(get("/products/{id}", nonExistingId)
 				             .accept(MediaType.APPLICATION_JSON));
 		
 		result.andExpect(status().isNotFound()); 
@@ -124,6 +193,22 @@ public class ProductResourceTests {
 		
 	}
 	
+	@Test
+	public void updateShouldReturnPreconditionFailedWhenIfMatchIsStale() throws Exception {
+		
+		String jsonBody = objectMapper.writeValueAsString(productDTO);
+		
+		 ResultActions result =
+                 mockmvc.perform(put("/products/{id}", existingId)
+                 .header("If-Match", "\"" + staleVersion + "\"")
+                 .content(jsonBody)	
+                 .contentType(MediaType.APPLICATION_JSON)
+	             .accept(MediaType.APPLICATION_JSON));
+		 
+		 result.andExpect(status().isPreconditionFailed());
+		
+	}
+	
 	@Test
 	public void updateShouldReturnNotFoundWhenIdDoesNotExists() throws Exception {
 		
@@ -177,4 +262,11 @@ public class ProductResourceTests {
          result.andExpect(status().isNotFound()); 
 		
 	}
+
+	// Leituras devolvem CompletableFuture: o corpo so e escrito no dispatch assincrono
+	private ResultActions read(RequestBuilder request) throws Exception {
+		ResultActions result = mockmvc.perform(request);
+		MvcResult mvcResult = result.andReturn();
+		return mvcResult.getRequest().isAsyncStarted() ? mockmvc.perform(asyncDispatch(mvcResult)) : result;
+	}
 }
@@ -0,0 +1,140 @@
+package com.devsuperior.dscatalog.resources.reactive;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.provider.OAuth2Authentication;
+import org.springframework.security.oauth2.provider.OAuth2Request;
+import org.springframework.security.oauth2.provider.token.store.JwtAccessTokenConverter;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+@SpringBootTest(properties = { "catalog.reactive.enabled=true", "catalog.reactive.port=0",
+		"catalog.reactive.stream-chunk-size=10" })
+public class ReactiveCatalogServerIntegrationTest {
+
+	@Autowired
+	private ReactiveCatalogServer server;
+
+	@Autowired
+	private JwtAccessTokenConverter accessTokenConverter;
+
+	private WebTestClient client;
+	private String accessToken;
+
+	private long existingId;
+	private long nonExistingId;
+	private long countTotalProducts;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		accessToken = accessToken(new Date(System.currentTimeMillis() + 60_000L));
+		client = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort())
+				.defaultHeader(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken).build();
+		existingId = 1L;
+		nonExistingId = 1000L;
+		countTotalProducts = 25L;
+	}
+
+	@Test
+	public void findProductShouldReturnProductWithCategoriesWhenIdExists() {
+		client.get().uri("/products/{id}", existingId)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectBody()
+				.jsonPath("$.id").isEqualTo(existingId)
+				.jsonPath("$.name").isEqualTo("The Lord of the Rings")
+				.jsonPath("$.categories[0].id").isEqualTo(2);
+	}
+
+	@Test
+	public void findProductShouldReturnNotFoundWhenIdDoesNotExist() {
+		client.get().uri("/products/{id}", nonExistingId)
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isNotFound()
+				.expectBody()
+				.jsonPath("$.status").isEqualTo(404);
+	}
+
+	@Test
+	public void findProductsShouldReturnNdjsonPageInIdOrder() {
+		List<ProductDTO> page = client.get().uri("/products?page=1&size=10")
+				.accept(MediaType.APPLICATION_NDJSON)
+				.exchange()
+				.expectStatus().isOk()
+				.expectHeader().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+				.returnResult(ProductDTO.class)
+				.getResponseBody()
+				.collectList()
+				.block();
+
+		Assertions.assertEquals(10, page.size());
+		Assertions.assertEquals(11L, page.get(0).getId());
+		Assertions.assertEquals(20L, page.get(9).getId());
+	}
+
+	@Test
+	public void streamProductsShouldReturnWholeCatalogAcrossChunks() {
+		List<ProductDTO> all = client.get().uri("/products/stream")
+				.exchange()
+				.expectStatus().isOk()
+				.returnResult(ProductDTO.class)
+				.getResponseBody()
+				.collectList()
+				.block();
+
+		Assertions.assertEquals(countTotalProducts, all.size());
+		Assertions.assertEquals(countTotalProducts, all.get(all.size() - 1).getId());
+	}
+
+	@Test
+	public void findProductShouldReturnBadRequestWhenIdOverflowsLong() {
+		client.get().uri("/products/{id}", "99999999999999999999")
+				.accept(MediaType.APPLICATION_JSON)
+				.exchange()
+				.expectStatus().isBadRequest();
+	}
+
+	@Test
+	public void requestsShouldReturnUnauthorizedWithoutValidToken() {
+		WebTestClient anonymous = WebTestClient.bindToServer().baseUrl("http://localhost:" + server.getPort()).build();
+
+		anonymous.get().uri("/products/{id}", existingId)
+				.exchange()
+				.expectStatus().isUnauthorized()
+				.expectHeader().valueEquals(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+
+		anonymous.get().uri("/products/stream")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken + "x")
+				.exchange()
+				.expectStatus().isUnauthorized();
+
+		anonymous.get().uri("/categories")
+				.header(HttpHeaders.AUTHORIZATION, "Bearer " + accessToken(new Date(System.currentTimeMillis() - 1000L)))
+				.exchange()
+				.expectStatus().isUnauthorized();
+	}
+
+	// Token assinado com a mesma chave do /oauth/token, sem passar pelo login
+	private String accessToken(Date expiration) {
+		OAuth2Request request = new OAuth2Request(Map.of(), "dscatalog", List.of(), true, Set.of("read"), Set.of(),
+				null, Set.of(), Map.of());
+		DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("token");
+		token.setExpiration(expiration);
+		token.setScope(Set.of("read"));
+		return accessTokenConverter.enhance(token, new OAuth2Authentication(request, null)).getValue();
+	}
+}
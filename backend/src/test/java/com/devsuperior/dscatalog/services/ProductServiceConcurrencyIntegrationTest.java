@@ -0,0 +1,114 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
+import com.devsuperior.dscatalog.tests.Factory;
+
+// Sem @Transactional: cada thread precisa da sua propria transacao
+@SpringBootTest
+public class ProductServiceConcurrencyIntegrationTest {
+
+	@Autowired
+	private ProductService service;
+
+	private int threads;
+	private ExecutorService executor;
+	private ProductDTO product;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		threads = 8;
+		executor = Executors.newFixedThreadPool(threads);
+		product = service.insert(Factory.createProductDTO());
+	}
+
+	@AfterEach
+	void tearDown() throws Exception {
+		executor.shutdownNow();
+		service.delete(product.getId());
+	}
+
+	@Test
+	public void concurrentUpdatesWithSameIfMatchShouldAcceptOnlyOne() throws Exception {
+		Long version = service.findById(product.getId()).getVersion();
+		CountDownLatch start = new CountDownLatch(1);
+		AtomicInteger accepted = new AtomicInteger();
+		AtomicInteger rejected = new AtomicInteger();
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			int n = i;
+			futures.add(executor.submit(() -> {
+				ProductDTO dto = Factory.createProductDTO();
+				dto.setPrice(1000.0 + n);
+				start.await();
+				try {
+					service.update(dto, product.getId(), version);
+					accepted.incrementAndGet();
+				}
+				catch (PreconditionFailedException e) {
+					rejected.incrementAndGet();
+				}
+				return null;
+			}));
+		}
+		start.countDown();
+		for (Future<?> future : futures) {
+			future.get(30, TimeUnit.SECONDS);
+		}
+
+		Assertions.assertEquals(1, accepted.get());
+		Assertions.assertEquals(threads - 1, rejected.get());
+		Assertions.assertEquals(version + 1, service.findById(product.getId()).getVersion());
+	}
+
+	@Test
+	public void retryingWritersShouldNotLoseUpdatesUnderContention() throws Exception {
+		int updatesPerThread = 20;
+		Long initialVersion = service.findById(product.getId()).getVersion();
+
+		List<Future<?>> futures = new ArrayList<>();
+		for (int i = 0; i < threads; i++) {
+			futures.add(executor.submit(() -> {
+				for (int done = 0; done < updatesPerThread; ) {
+					// Le, altera e grava com If-Match; em conflito le de novo
+					ProductDTO current = service.findById(product.getId());
+					current.setPrice(current.getPrice() + 1);
+					try {
+						service.update(current, product.getId(), current.getVersion());
+						done++;
+					}
+					catch (PreconditionFailedException e) {
+						// Outra thread gravou antes: tenta de novo com a versao nova
+					}
+				}
+				return null;
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get(60, TimeUnit.SECONDS);
+		}
+
+		int total = threads * updatesPerThread;
+		ProductDTO result = service.findById(product.getId());
+		// Nenhuma escrita perdida: cada update aceito somou 1 ao preco
+		Assertions.assertEquals(initialVersion + total, result.getVersion());
+		Assertions.assertEquals(product.getPrice() + total, result.getPrice());
+	}
+}
@@ -1,5 +1,7 @@
 package com.devsuperior.dscatalog.services;
 
+import java.util.List;
+
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,7 +13,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductFacetsDTO;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.services.exceptions.InvalidFacetException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
 
 @SpringBootTest
@@ -83,4 +87,78 @@ public class ProductServiceIntegrationTest {
 		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
 		Assertions.assertEquals("PC Gamer Alfa", result.getContent().get(2).getName());
 	}
+	
+	@Test
+	public void findAllPagedShouldReturnOnlyProductsInPriceRange() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		Page<ProductDTO> result = service.findAllPaged(null, 1000.0, pageRequest);
+		
+		Assertions.assertEquals(2, result.getTotalElements());
+		result.forEach(x -> Assertions.assertTrue(x.getPrice() <= 1000.0));
+	}
+	
+	@Test
+	public void facetsShouldCountEveryProductInBuckets() {
+		
+		ProductFacetsDTO result = service.facets(null, null, 500.0);
+		
+		Assertions.assertEquals(countTotalProducts, result.getTotalElements());
+		Assertions.assertEquals(0.0, result.getPriceBuckets().get(0).getFrom());
+		Assertions.assertEquals(2L, result.getPriceBuckets().get(0).getCount());
+	}
+	
+	@Test
+	public void facetsShouldCountProductsPerCategoryInPriceRange() {
+		
+		ProductFacetsDTO result = service.facets(null, 1000.0, 500.0);
+		
+		Assertions.assertEquals(1, result.getCategories().size());
+		Assertions.assertEquals("Eletrônicos", result.getCategories().get(0).getName());
+		Assertions.assertEquals(2L, result.getCategories().get(0).getCount());
+	}
+	
+	@Test
+	public void facetsShouldThrowInvalidFacetExceptionWhenIntervalGivesTooManyBuckets() {
+		
+		Assertions.assertThrows(InvalidFacetException.class, () -> {
+			service.facets(null, null, 0.0001);
+		});
+	}
+	
+	@Test
+	public void facetsShouldThrowInvalidFacetExceptionWhenIntervalIsNotPositive() {
+		
+		Assertions.assertThrows(InvalidFacetException.class, () -> {
+			service.facets(null, null, 0.0);
+		});
+		Assertions.assertThrows(InvalidFacetException.class, () -> {
+			service.facets(null, null, -5.0);
+		});
+	}
+	
+	@Test
+	public void findByCategoriesShouldIntersectAndExcludeCategories() {
+		
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		
+		Page<ProductDTO> both = service.findByCategories(List.of(1L, 3L), null, null, pageRequest);
+		Page<ProductDTO> withoutComputers = service.findByCategories(null, null, List.of(3L), pageRequest);
+		
+		Assertions.assertEquals(1, both.getTotalElements());
+		Assertions.assertEquals(2L, both.getContent().get(0).getId());
+		Assertions.assertEquals(2, withoutComputers.getTotalElements());
+		Assertions.assertEquals(1L, withoutComputers.getContent().get(0).getId());
+		Assertions.assertEquals(5L, withoutComputers.getContent().get(1).getId());
+	}
+	
+	@Test
+	public void findByCategoriesShouldPageInIdOrder() {
+		
+		Page<ProductDTO> result = service.findByCategories(List.of(3L), null, null, PageRequest.of(1, 10));
+		
+		Assertions.assertEquals(23, result.getTotalElements());
+		Assertions.assertEquals(10, result.getNumberOfElements());
+		Assertions.assertEquals(13L, result.getContent().get(0).getId());
+	}
 }
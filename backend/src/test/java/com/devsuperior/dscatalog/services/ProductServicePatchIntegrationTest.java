@@ -0,0 +1,88 @@
+package com.devsuperior.dscatalog.services;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.dto.ProductPatchDTO;
+import com.devsuperior.dscatalog.tests.SqlStatementCounter;
+
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "com.devsuperior.dscatalog.tests.SqlStatementCounter")
+@Transactional
+public class ProductServicePatchIntegrationTest {
+
+	@Autowired
+	private ProductService service;
+
+	private long existingId;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		// Produto 2 (Macbook Pro) esta nas categorias 1 e 3
+		existingId = 2L;
+		SqlStatementCounter.reset();
+	}
+
+	@Test
+	public void patchPriceOnlyShouldNotTouchCategoryRows() {
+		ProductPatchDTO dto = new ProductPatchDTO();
+		dto.setPrice(1300.0);
+
+		ProductDTO result = service.patch(dto, existingId, null);
+
+		Assertions.assertEquals(1300.0, result.getPrice());
+		Assertions.assertEquals("Macbook Pro", result.getName());
+		Assertions.assertEquals(0, SqlStatementCounter.count("tb_product_category"),
+				SqlStatementCounter.statements().toString());
+		// select do produto, update do produto e insert no outbox
+		Assertions.assertEquals(3, SqlStatementCounter.statements().size(),
+				SqlStatementCounter.statements().toString());
+	}
+
+	@Test
+	public void patchCategoriesShouldWriteOnlyChangedRows() {
+		ProductPatchDTO dto = new ProductPatchDTO();
+		dto.setCategories(List.of(new CategoryDTO(1L, null), new CategoryDTO(2L, null)));
+
+		service.patch(dto, existingId, null);
+
+		Assertions.assertEquals(1, SqlStatementCounter.count("delete from tb_product_category"),
+				SqlStatementCounter.statements().toString());
+		Assertions.assertEquals(1, SqlStatementCounter.count("insert into tb_product_category"),
+				SqlStatementCounter.statements().toString());
+	}
+
+	@Test
+	public void insertShouldResolveAllCategoriesWithOneQuery() {
+		ProductDTO dto = service.findById(existingId);
+		dto.setId(null);
+		dto.setCategories(List.of(new CategoryDTO(1L, null), new CategoryDTO(2L, null), new CategoryDTO(3L, null)));
+		SqlStatementCounter.reset();
+
+		service.insert(dto);
+
+		Assertions.assertEquals(1, SqlStatementCounter.count("from tb_category"),
+				SqlStatementCounter.statements().toString());
+		Assertions.assertEquals(3, SqlStatementCounter.count("insert into tb_product_category"));
+	}
+
+	@Test
+	public void updateWithSameCategoriesShouldNotRewriteCategoryRows() {
+		ProductDTO dto = service.findById(existingId);
+		dto.setPrice(1400.0);
+		SqlStatementCounter.reset();
+
+		service.update(dto, existingId, null);
+
+		Assertions.assertEquals(0, SqlStatementCounter.count("delete from tb_product_category"));
+		Assertions.assertEquals(0, SqlStatementCounter.count("insert into tb_product_category"));
+	}
+}
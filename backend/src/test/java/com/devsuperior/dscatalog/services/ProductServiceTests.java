@@ -13,21 +13,28 @@ import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
+import org.mockito.Spy;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.dao.EmptyResultDataAccessException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import com.devsuperior.dscatalog.dto.CategoryDTO;
 import com.devsuperior.dscatalog.dto.ProductDTO;
 import com.devsuperior.dscatalog.entities.Category;
 import com.devsuperior.dscatalog.entities.Product;
 import com.devsuperior.dscatalog.repositories.CategoryRepository;
 import com.devsuperior.dscatalog.repositories.ProductRepository;
+import com.devsuperior.dscatalog.repositories.TombstoneRepository;
+import com.devsuperior.dscatalog.services.cache.SingleFlight;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
 import com.devsuperior.dscatalog.services.exceptions.DatabaseException;
+import com.devsuperior.dscatalog.services.exceptions.PreconditionFailedException;
 import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+import com.devsuperior.dscatalog.services.outbox.OutboxService;
 import com.devsuperior.dscatalog.tests.Factory;
 
 
@@ -43,6 +50,18 @@ public class ProductServiceTests {
 	@Mock
 	private CategoryRepository categoryRepository;
 	
+	@Mock
+	private TombstoneRepository tombstoneRepository;
+	
+	@Mock
+	private OutboxService outboxService;
+	
+	@Mock
+	private ApplicationEventPublisher publisher;
+	
+	@Spy
+	private SingleFlight singleFlight = new SingleFlight();
+	
 	private long existingId;
 	private long nonExistingId;
 	private long dependentId;
@@ -64,6 +83,7 @@ public class ProductServiceTests {
 		Mockito.when(repository.findAll((Pageable)ArgumentMatchers.any())).thenReturn(page);
 		
 		Mockito.when(repository.save(ArgumentMatchers.any())).thenReturn(product);
+		Mockito.when(repository.saveAndFlush(ArgumentMatchers.any())).thenReturn(product);
 		
 		Mockito.when(repository.findById(existingId)).thenReturn(Optional.of(product));
 		Mockito.when(repository.findById(nonExistingId)).thenReturn(Optional.empty());
@@ -71,12 +91,12 @@ public class ProductServiceTests {
 		Mockito.when(repository.getOne(existingId)).thenReturn(product);
 		Mockito.when(repository.getOne(nonExistingId)).thenThrow(EntityNotFoundException.class);
 		
-		Mockito.when(categoryRepository.getOne(existingId)).thenReturn(category);
-		Mockito.when(categoryRepository.getOne(nonExistingId)).thenThrow(EntityNotFoundException.class);
+		Mockito.when(categoryRepository.findAllById(List.of(category.getId()))).thenReturn(List.of(category));
+		Mockito.when(categoryRepository.findAllById(List.of(nonExistingId))).thenReturn(List.of());
 		
-		Mockito.doNothing().when(repository).deleteById(existingId);
-		Mockito.doThrow(EmptyResultDataAccessException.class).when(repository).deleteById(nonExistingId);
-		Mockito.doThrow(DataIntegrityViolationException.class).when(repository).deleteById(dependentId);
+		Mockito.when(repository.deleteDirectlyById(existingId)).thenReturn(1);
+		Mockito.when(repository.deleteDirectlyById(nonExistingId)).thenReturn(0);
+		Mockito.when(repository.deleteDirectlyById(dependentId)).thenThrow(DataIntegrityViolationException.class);
 	}
 	
 	@Test
@@ -99,7 +119,7 @@ public class ProductServiceTests {
 			service.delete(existingId);
 		});
 		
-		Mockito.verify(repository, Mockito.times(1)).deleteById(existingId);
+		Mockito.verify(repository, Mockito.times(1)).deleteDirectlyById(existingId);
 	}
 	
 	@Test
@@ -109,7 +129,7 @@ public class ProductServiceTests {
 			service.delete(nonExistingId);
 		});
 		
-		Mockito.verify(repository, Mockito.times(1)).deleteById(nonExistingId);
+		Mockito.verify(repository, Mockito.times(1)).deleteDirectlyById(nonExistingId);
 	}
 	
 	@Test
@@ -119,7 +139,7 @@ public class ProductServiceTests {
 			service.delete(dependentId);
 		});
 		
-		Mockito.verify(repository, Mockito.times(1)).deleteById(dependentId);
+		Mockito.verify(repository, Mockito.times(1)).deleteDirectlyById(dependentId);
 	}
 	
 	@Test
@@ -146,18 +166,66 @@ public class ProductServiceTests {
 		
 		ProductDTO productDTO = Factory.createProductDTO();
 			
-		ProductDTO result = service.update(productDTO,existingId);
+		ProductDTO result = service.update(productDTO,existingId, null);
 		
 		Assertions.assertNotNull(result);
 		
 	}
 	
+	@Test
+	public void updateShouldNotSaveNorPublishWhenNothingChanged() {
+		
+		ProductDTO productDTO = Factory.createProductDTO();
+		
+		service.update(productDTO, existingId, null);
+		
+		Mockito.verify(repository, Mockito.never()).saveAndFlush(ArgumentMatchers.any());
+		Mockito.verify(outboxService, Mockito.never()).record(ArgumentMatchers.any(), ArgumentMatchers.any(), ArgumentMatchers.any());
+		Mockito.verify(publisher, Mockito.never()).publishEvent(ArgumentMatchers.any(ProductChangedEvent.class));
+	}
+	
+	@Test
+	public void updateShouldSaveAndPublishWhenPriceChanged() {
+		
+		ProductDTO productDTO = Factory.createProductDTO();
+		productDTO.setPrice(900.0);
+		
+		service.update(productDTO, existingId, null);
+		
+		Mockito.verify(repository, Mockito.times(1)).saveAndFlush(product);
+		Mockito.verify(publisher, Mockito.times(1)).publishEvent(ArgumentMatchers.any(ProductChangedEvent.class));
+	}
+	
+	@Test
+	public void updateShouldThrowPreconditionFailedAndNotSaveWhenVersionDoesNotMatch() {
+		
+		ProductDTO productDTO = Factory.createProductDTO();
+		
+		Assertions.assertThrows(PreconditionFailedException.class, () -> {
+			service.update(productDTO, existingId, 5L);
+		});
+		Mockito.verify(repository, Mockito.never()).saveAndFlush(ArgumentMatchers.any());
+	}
+	
+	@Test
+	public void updateShouldThrowResourceNotFoundAndNotSaveWhenCategoryDoesNotExist() {
+		
+		ProductDTO productDTO = Factory.createProductDTO();
+		productDTO.getCategories().add(new CategoryDTO(nonExistingId, "Unknown"));
+		
+		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
+			service.update(productDTO, existingId, null);
+		});
+		Mockito.verify(categoryRepository, Mockito.times(1)).findAllById(List.of(nonExistingId));
+		Mockito.verify(repository, Mockito.never()).saveAndFlush(ArgumentMatchers.any());
+	}
+	
 	@Test
 	public void updateShouldThrowExceptionWhenIdDoesNotExists() {
 		
 		Assertions.assertThrows(ResourceNotFoundException.class, () -> {
 			ProductDTO productDTO = Factory.createProductDTO();
-		    service.update(productDTO, nonExistingId);
+		    service.update(productDTO, nonExistingId, null);
 		});
 			
 	}
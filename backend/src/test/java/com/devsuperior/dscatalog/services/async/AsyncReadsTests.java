@@ -0,0 +1,64 @@
+package com.devsuperior.dscatalog.services.async;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadContext;
+import com.devsuperior.dscatalog.services.bulkhead.BulkheadType;
+import com.devsuperior.dscatalog.services.exceptions.ServiceOverloadedException;
+
+public class AsyncReadsTests {
+
+	private AsyncReads asyncReads;
+
+	private AsyncReads create(int threads, int queue) {
+		asyncReads = new AsyncReads();
+		ReflectionTestUtils.setField(asyncReads, "threads", threads);
+		ReflectionTestUtils.setField(asyncReads, "queue", queue);
+		ReflectionTestUtils.setField(asyncReads, "retryAfterSeconds", 1L);
+		asyncReads.init();
+		return asyncReads;
+	}
+
+	@AfterEach
+	public void tearDown() {
+		asyncReads.shutdown();
+	}
+
+	@Test
+	public void submitShouldRunCallOnReadBulkhead() throws Exception {
+		create(1, 1);
+
+		BulkheadType type = asyncReads.submit(() -> BulkheadContext.current()).get(5, TimeUnit.SECONDS);
+
+		Assertions.assertEquals(BulkheadType.READ, type);
+		Assertions.assertNull(BulkheadContext.current());
+	}
+
+	@Test
+	public void submitShouldThrowServiceOverloadedWhenQueueIsFull() throws Exception {
+		create(1, 1);
+		CountDownLatch release = new CountDownLatch(1);
+		asyncReads.submit(() -> await(release));
+		asyncReads.submit(() -> await(release));
+
+		Assertions.assertThrows(ServiceOverloadedException.class, () -> asyncReads.submit(() -> "rejected"));
+
+		release.countDown();
+	}
+
+	private static Boolean await(CountDownLatch latch) {
+		try {
+			return latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			return false;
+		}
+	}
+}
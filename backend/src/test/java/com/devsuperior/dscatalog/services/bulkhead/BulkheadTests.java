@@ -0,0 +1,114 @@
+package com.devsuperior.dscatalog.services.bulkhead;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.devsuperior.dscatalog.resources.filters.BulkheadFilter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class BulkheadTests {
+
+	@Test
+	public void classifyShouldSeparateReadsWritesAndTokenRequests() {
+		Assertions.assertEquals(BulkheadType.READ, BulkheadType.classify("GET", "/products/1"));
+		Assertions.assertEquals(BulkheadType.READ, BulkheadType.classify("POST", "/graphql"));
+		Assertions.assertEquals(BulkheadType.WRITE, BulkheadType.classify("POST", "/products"));
+		Assertions.assertEquals(BulkheadType.WRITE, BulkheadType.classify("PATCH", "/products/1"));
+		Assertions.assertEquals(BulkheadType.AUTH, BulkheadType.classify("POST", "/oauth/token"));
+	}
+
+	@Test
+	public void readPartitionShouldCoverAsyncCapacityWhenAsyncIsEnabled() {
+		MockEnvironment env = new MockEnvironment()
+				.withProperty("catalog.bulkheads.read.max-concurrent", "110")
+				.withProperty("catalog.async.threads", "32")
+				.withProperty("catalog.async.queue", "2000");
+
+		Assertions.assertEquals(110, new Bulkheads(env).get(BulkheadType.READ).getMaxConcurrent());
+
+		env.setProperty("catalog.async.enabled", "true");
+		Bulkheads async = new Bulkheads(env);
+		Assertions.assertEquals(2032, async.get(BulkheadType.READ).getMaxConcurrent());
+		Assertions.assertEquals(BulkheadType.WRITE.getMaxConcurrent(), async.get(BulkheadType.WRITE).getMaxConcurrent());
+
+		env.setProperty("catalog.bulkheads.read.async-max-concurrent", "500");
+		Assertions.assertEquals(500, new Bulkheads(env).get(BulkheadType.READ).getMaxConcurrent());
+	}
+
+	@Test
+	public void tryEnterShouldRejectImmediatelyWhenQueueIsFull() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(BulkheadType.WRITE, 1, 0, 1000, 1);
+
+		Assertions.assertTrue(bulkhead.tryEnter());
+		long start = System.nanoTime();
+		Assertions.assertFalse(bulkhead.tryEnter());
+
+		Assertions.assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 500);
+		Assertions.assertEquals(1, bulkhead.getRejected());
+		Assertions.assertEquals(1, bulkhead.getActive());
+	}
+
+	@Test
+	public void waitingCallerShouldEnterWhenPermitIsReleased() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(BulkheadType.READ, 1, 1, 5000, 1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Assertions.assertTrue(bulkhead.tryEnter());
+			CountDownLatch started = new CountDownLatch(1);
+			Future<Boolean> waiter = executor.submit(() -> {
+				started.countDown();
+				return bulkhead.tryEnter();
+			});
+			started.await();
+			while (bulkhead.getWaiting() == 0) {
+				Thread.sleep(5);
+			}
+
+			bulkhead.exit();
+
+			Assertions.assertTrue(waiter.get(5, TimeUnit.SECONDS));
+			Assertions.assertEquals(0, bulkhead.getRejected());
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void waitingCallerShouldBeRejectedAfterMaxWait() throws Exception {
+		Bulkhead bulkhead = new Bulkhead(BulkheadType.READ, 1, 5, 50, 1);
+
+		Assertions.assertTrue(bulkhead.tryEnter());
+		Assertions.assertFalse(bulkhead.tryEnter());
+
+		Assertions.assertEquals(1, bulkhead.getRejected());
+		Assertions.assertEquals(0, bulkhead.getWaiting());
+	}
+
+	@Test
+	public void filterShouldHoldPermitUntilAsyncRequestCompletes() throws Exception {
+		Bulkheads bulkheads = new Bulkheads(new MockEnvironment());
+		Bulkhead read = bulkheads.get(BulkheadType.READ);
+		BulkheadFilter filter = new BulkheadFilter(bulkheads, new ObjectMapper());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/products/1");
+		request.setAsyncSupported(true);
+		FilterChain chain = (req, res) -> req.startAsync();
+
+		filter.doFilter(request, new MockHttpServletResponse(), chain);
+		Assertions.assertEquals(1, read.getActive());
+
+		request.getAsyncContext().complete();
+		Assertions.assertEquals(0, read.getActive());
+	}
+}
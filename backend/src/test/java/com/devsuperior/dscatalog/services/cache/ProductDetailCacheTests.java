@@ -0,0 +1,106 @@
+package com.devsuperior.dscatalog.services.cache;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+import com.devsuperior.dscatalog.services.ProductService;
+import com.devsuperior.dscatalog.services.events.CategoryChangedEvent;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+import com.devsuperior.dscatalog.tests.Factory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+public class ProductDetailCacheTests {
+
+	private ProductDetailCache cache;
+	private ProductService service;
+	private ProductDTO product;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		product = Factory.createProductDTO();
+		service = Mockito.mock(ProductService.class);
+		Mockito.when(service.findById(Mockito.anyLong())).thenAnswer(x -> {
+			ProductDTO dto = Factory.createProductDTO();
+			dto.setId(x.getArgument(0));
+			return dto;
+		});
+
+		cache = new ProductDetailCache();
+		ReflectionTestUtils.setField(cache, "service", service);
+		ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+		ReflectionTestUtils.setField(cache, "maxBytes", 1_000_000L);
+		ReflectionTestUtils.setField(cache, "minGzipBytes", 1024);
+	}
+
+	@Test
+	public void getShouldServeSameBytesWithoutCallingServiceAgain() throws Exception {
+
+		SerializedProduct first = cache.get(product.getId());
+		SerializedProduct second = cache.get(product.getId());
+
+		Assertions.assertSame(first.getJson(), second.getJson());
+		Mockito.verify(service, Mockito.times(1)).findById(product.getId());
+		Assertions.assertTrue(new String(first.getJson(), "UTF-8").contains("\"name\":\"Phone\""));
+	}
+
+	@Test
+	public void productChangeShouldInvalidateOnlyThatProduct() {
+		cache.get(1L);
+		cache.get(2L);
+
+		cache.onProductChanged(new ProductChangedEvent(1L, ChangeType.UPDATED));
+		cache.get(1L);
+		cache.get(2L);
+
+		Mockito.verify(service, Mockito.times(2)).findById(1L);
+		Mockito.verify(service, Mockito.times(1)).findById(2L);
+	}
+
+	@Test
+	public void categoryChangeShouldInvalidateEverything() {
+		cache.get(1L);
+		cache.get(2L);
+
+		cache.onCategoryChanged(new CategoryChangedEvent(2L, ChangeType.UPDATED));
+
+		Assertions.assertEquals(0, cache.size());
+		Assertions.assertEquals(0L, cache.totalBytes());
+	}
+
+	@Test
+	public void getShouldEvictLeastRecentlyUsedWhenOverByteLimit() {
+		long entrySize = cache.get(1L).size();
+		ReflectionTestUtils.setField(cache, "maxBytes", entrySize * 3);
+
+		cache.get(2L);
+		cache.get(3L);
+		cache.get(1L);
+		cache.get(4L);
+
+		Assertions.assertTrue(cache.totalBytes() <= entrySize * 3);
+		cache.get(1L);
+		// 1 foi lido por ultimo antes do 4: continua no cache
+		Mockito.verify(service, Mockito.times(1)).findById(1L);
+	}
+
+	@Test
+	public void loadRacingWithInvalidationShouldNotBeCached() {
+		Mockito.when(service.findById(5L)).thenAnswer(x -> {
+			// Escrita concorrente enquanto a leitura estava no banco
+			cache.onProductChanged(new ProductChangedEvent(5L, ChangeType.UPDATED));
+			ProductDTO dto = Factory.createProductDTO();
+			dto.setId(5L);
+			return dto;
+		});
+
+		cache.get(5L);
+
+		Assertions.assertEquals(0, cache.size());
+	}
+}
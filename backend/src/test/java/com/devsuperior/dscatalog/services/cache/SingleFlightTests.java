@@ -0,0 +1,122 @@
+package com.devsuperior.dscatalog.services.cache;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.services.exceptions.ResourceNotFoundException;
+
+public class SingleFlightTests {
+
+	private SingleFlight flight;
+	private ExecutorService executor;
+	private CountDownLatch release;
+	private AtomicInteger loads;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		flight = new SingleFlight();
+		executor = Executors.newFixedThreadPool(8);
+		release = new CountDownLatch(1);
+		loads = new AtomicInteger();
+	}
+
+	@AfterEach
+	void tearDown() {
+		release.countDown();
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void concurrentLoadsOfSameKeyShouldShareOneLoad() throws Exception {
+		List<Future<Object>> results = submit(8, () -> {
+			loads.incrementAndGet();
+			await(release);
+			return new Object();
+		});
+		awaitCoalesced("test", 7);
+		release.countDown();
+
+		Object first = results.get(0).get(5, TimeUnit.SECONDS);
+		for (Future<Object> result : results) {
+			Assertions.assertSame(first, result.get(5, TimeUnit.SECONDS));
+		}
+		Assertions.assertEquals(1, loads.get());
+		Assertions.assertEquals(1, flight.stats().get("test").getLoads());
+		Assertions.assertEquals(7, flight.stats().get("test").getCoalesced());
+	}
+
+	@Test
+	public void waitingCallersShouldReceiveLeaderException() throws Exception {
+		List<Future<Object>> results = submit(4, () -> {
+			await(release);
+			throw new ResourceNotFoundException("Id não encontrado");
+		});
+		awaitCoalesced("test", 3);
+		release.countDown();
+
+		for (Future<Object> result : results) {
+			Exception e = Assertions.assertThrows(Exception.class, () -> result.get(5, TimeUnit.SECONDS));
+			Assertions.assertTrue(e.getCause() instanceof ResourceNotFoundException);
+		}
+	}
+
+	@Test
+	public void waitingCallerShouldLoadItselfAfterTimeout() throws Exception {
+		ReflectionTestUtils.setField(flight, "timeoutMs", 50L);
+		submit(1, () -> {
+			await(release);
+			return "leader";
+		});
+		// O lider ja esta registrado quando o contador de loads sobe
+		while (flight.stats().get("test") == null || flight.stats().get("test").getLoads() == 0) {
+			Thread.sleep(5);
+		}
+
+		Object result = flight.load("test", 1L, () -> "own");
+
+		Assertions.assertEquals("own", result);
+		Assertions.assertEquals(1, flight.stats().get("test").getTimeouts());
+	}
+
+	private List<Future<Object>> submit(int callers, Supplier<Object> loader) {
+		List<Future<Object>> results = new ArrayList<>();
+		for (int i = 0; i < callers; i++) {
+			results.add(executor.submit(() -> flight.load("test", 1L, loader)));
+		}
+		return results;
+	}
+
+	private void awaitCoalesced(String group, long expected) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + 5000;
+		while (System.currentTimeMillis() < deadline) {
+			SingleFlight.Stats stats = flight.stats().get(group);
+			if (stats != null && stats.getCoalesced() >= expected) {
+				return;
+			}
+			Thread.sleep(5);
+		}
+		Assertions.fail("callers did not coalesce");
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		}
+		catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,61 @@
+package com.devsuperior.dscatalog.services.graphql;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.transaction.annotation.Transactional;
+
+@SpringBootTest
+@Transactional
+public class CatalogGraphQLIntegrationTest {
+
+	@Autowired
+	private CatalogGraphQL graphQL;
+
+	@SpyBean
+	private ProductCategoryLoader productCategoryLoader;
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void productsWithCategoriesShouldLoadAllCategoriesInOneBatch() {
+		Map<String, Object> result = graphQL.execute(
+				"{ products(page: 0, size: 10) { content { name categories { name } } total hasNext } }", null, null);
+
+		Assertions.assertNull(result.get("errors"));
+		Map<String, Object> products = (Map<String, Object>) ((Map<String, Object>) result.get("data")).get("products");
+		List<Map<String, Object>> content = (List<Map<String, Object>>) products.get("content");
+		Assertions.assertEquals(10, content.size());
+		Assertions.assertEquals(25, products.get("total"));
+		Assertions.assertFalse(((List<?>) content.get(0).get("categories")).isEmpty());
+		verify(productCategoryLoader, times(1)).load(any());
+	}
+
+	@Test
+	public void executeShouldRejectQueriesDeeperThanLimit() {
+		Map<String, Object> result = graphQL.execute(
+				"{ __schema { types { fields { type { ofType { ofType { name } } } } } } }", null, null);
+
+		Assertions.assertNotNull(result.get("errors"));
+		Assertions.assertNull(result.get("data"));
+	}
+
+	@Test
+	public void executeShouldRejectQueriesAboveCostLimit() {
+		String page = "products(size: 100) { content { id name description price imgUrl date version "
+				+ "categories { id name } } }";
+		Map<String, Object> result = graphQL.execute("{ a: " + page + " b: " + page + " }", null, null);
+
+		Assertions.assertNotNull(result.get("errors"));
+		Assertions.assertNull(result.get("data"));
+		verify(productCategoryLoader, times(0)).load(any());
+	}
+}
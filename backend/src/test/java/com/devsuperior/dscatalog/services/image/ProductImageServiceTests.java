@@ -0,0 +1,175 @@
+package com.devsuperior.dscatalog.services.image;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.services.exceptions.ImageUnavailableException;
+
+public class ProductImageServiceTests {
+
+	@TempDir
+	Path tempDir;
+
+	private Path originDir;
+	private Path cacheDir;
+
+	private ProductImageService service;
+	private AtomicInteger fetches;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		originDir = Files.createDirectory(tempDir.resolve("origin"));
+		cacheDir = tempDir.resolve("cache");
+		ImageIO.write(new BufferedImage(800, 400, BufferedImage.TYPE_INT_RGB), "png", originDir.resolve("tv.png").toFile());
+
+		// Origem em disco no lugar do HTTP: a "URL" e o nome do arquivo
+		fetches = new AtomicInteger();
+		ImageOrigin origin = url -> {
+			fetches.incrementAndGet();
+			return Files.readAllBytes(originDir.resolve(url));
+		};
+		service = newService(origin, 10_000_000L, 0L);
+	}
+
+	@Test
+	public void getShouldResizeToNextServedWidthKeepingAspectRatio() throws Exception {
+
+		CachedImage image = service.get(1L, "tv.png", 200);
+
+		BufferedImage result = decode(image);
+		Assertions.assertEquals(256, result.getWidth());
+		Assertions.assertEquals(128, result.getHeight());
+		Assertions.assertEquals("image/jpeg", image.getContentType());
+		Assertions.assertTrue(Files.exists(image.getPath()));
+	}
+
+	@Test
+	public void getShouldNotUpscale() throws Exception {
+
+		CachedImage image = service.get(1L, "tv.png", null);
+
+		Assertions.assertEquals(800, decode(image).getWidth());
+	}
+
+	@Test
+	public void getShouldHitCacheOnSecondRequest() {
+
+		CachedImage first = service.get(1L, "tv.png", 100);
+		CachedImage second = service.get(1L, "tv.png", 128);
+
+		Assertions.assertEquals(1, fetches.get());
+		Assertions.assertEquals(first.getETag(), second.getETag());
+	}
+
+	@Test
+	public void getShouldEvictLeastRecentlyUsedWhenOverByteLimit() throws Exception {
+		CachedImage small = service.get(1L, "tv.png", 64);
+		service = newService(url -> Files.readAllBytes(originDir.resolve(url)), small.getLength() * 2, 0L);
+
+		CachedImage a = service.get(1L, "tv.png", 64);
+		CachedImage b = service.get(2L, "tv.png", 64);
+		service.get(1L, "tv.png", 64);
+		service.get(3L, "tv.png", 64);
+
+		// 2 foi o menos usado recentemente: saiu da memoria e do disco
+		Assertions.assertTrue(Files.exists(a.getPath()));
+		Assertions.assertFalse(Files.exists(b.getPath()));
+	}
+
+	@Test
+	public void getShouldKeepEvictedFileOnDiskDuringGracePeriod() throws Exception {
+		CachedImage small = service.get(1L, "tv.png", 64);
+		service = newService(url -> Files.readAllBytes(originDir.resolve(url)), small.getLength() * 2, 60_000L);
+
+		CachedImage a = service.get(1L, "tv.png", 64);
+		service.get(2L, "tv.png", 64);
+		service.get(3L, "tv.png", 64);
+
+		// 1 saiu da memoria, mas uma resposta por sendfile ainda pode abrir o arquivo
+		ImageCache cache = (ImageCache) ReflectionTestUtils.getField(service, "cache");
+		Assertions.assertNull(cache.get(a.getKey()));
+		Assertions.assertTrue(Files.exists(a.getPath()));
+	}
+
+	@Test
+	public void getShouldFetchOnceWhenSameImageIsRequestedConcurrently() throws Exception {
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger blockingFetches = new AtomicInteger();
+		service = newService(url -> {
+			blockingFetches.incrementAndGet();
+			started.countDown();
+			try {
+				release.await();
+			}
+			catch (InterruptedException e) {
+				throw new IOException(e);
+			}
+			return Files.readAllBytes(originDir.resolve(url));
+		}, 10_000_000L, 0L);
+
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			Future<CachedImage> first = executor.submit(() -> service.get(1L, "tv.png", 64));
+			Assertions.assertTrue(started.await(5, TimeUnit.SECONDS));
+			Future<CachedImage> second = executor.submit(() -> service.get(1L, "tv.png", 64));
+			Future<CachedImage> third = executor.submit(() -> service.get(1L, "tv.png", 64));
+			// Da tempo para os outros dois chegarem ao download em andamento
+			Thread.sleep(100);
+			release.countDown();
+
+			String eTag = first.get(5, TimeUnit.SECONDS).getETag();
+			Assertions.assertEquals(eTag, second.get(5, TimeUnit.SECONDS).getETag());
+			Assertions.assertEquals(eTag, third.get(5, TimeUnit.SECONDS).getETag());
+			Assertions.assertEquals(1, blockingFetches.get());
+		}
+		finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void getShouldThrowImageUnavailableWhenOriginFails() {
+
+		Assertions.assertThrows(ImageUnavailableException.class, () -> {
+			service.get(1L, "missing.png", 64);
+		});
+	}
+
+	private ProductImageService newService(ImageOrigin origin, long maxBytes, long deleteGraceMs) throws Exception {
+		ProductImageService result = new ProductImageService();
+		ReflectionTestUtils.setField(result, "origin", origin);
+		ReflectionTestUtils.setField(result, "cacheDir", cacheDir.toString());
+		ReflectionTestUtils.setField(result, "maxBytes", maxBytes);
+		ReflectionTestUtils.setField(result, "deleteGraceMs", deleteGraceMs);
+		ReflectionTestUtils.setField(result, "widths", new int[] { 64, 128, 256, 512, 1024 });
+		result.init();
+		return result;
+	}
+
+	private static BufferedImage decode(CachedImage image) throws Exception {
+		ByteBuffer buffer = image.getBuffer();
+		byte[] bytes = new byte[buffer.remaining()];
+		buffer.get(bytes);
+		return ImageIO.read(new ByteArrayInputStream(bytes));
+	}
+}
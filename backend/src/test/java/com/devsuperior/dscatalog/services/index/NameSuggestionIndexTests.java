@@ -0,0 +1,41 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class NameSuggestionIndexTests {
+
+	private NameSuggestionIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		index = new NameSuggestionIndex.Builder()
+				.add(1L, "PC Gamer", 1200.0)
+				.add(2L, "PC Gamer Alfa", 1850.0)
+				.add(3L, "Macbook Pro", 1250.0)
+				.add(4L, "PC Gamer Tera", 1950.0)
+				.add(5L, "Eletrônico Básico", 10.0)
+				.build();
+	}
+
+	@Test
+	public void suggestShouldReturnBestScoredNamesWithPrefix() {
+
+		List<NameSuggestionIndex.Suggestion> result = index.suggest("pc g", 2, id -> false);
+
+		Assertions.assertEquals(2, result.size());
+		Assertions.assertEquals("PC Gamer Tera", result.get(0).getName());
+		Assertions.assertEquals("PC Gamer Alfa", result.get(1).getName());
+	}
+
+	@Test
+	public void suggestShouldIgnoreAccentsAndSkippedIds() {
+
+		Assertions.assertEquals(5L, index.suggest("eletronico", 10, id -> false).get(0).getId());
+		Assertions.assertEquals(1, index.suggest("pc gamer", 10, id -> id != 1L).size());
+		Assertions.assertTrue(index.suggest("xyz", 10, id -> false).isEmpty());
+	}
+}
@@ -0,0 +1,59 @@
+package com.devsuperior.dscatalog.services.index;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class TrigramIndexTests {
+
+	private TrigramIndex index;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		index = new TrigramIndex.Builder()
+				.add(1L, "Macbook Pro")
+				.add(2L, "Notebook Gamer")
+				.add(3L, "Smart TV")
+				.build();
+	}
+
+	@Test
+	public void searchShouldFindMisspelledNames() {
+
+		List<TrigramIndex.Match> result = index.search(TrigramIndex.trigrams("Makbook"), 0.3, 100, id -> false);
+
+		Assertions.assertTrue(result.stream().anyMatch(x -> x.getId() == 1L));
+		Assertions.assertTrue(result.stream().noneMatch(x -> x.getId() == 3L));
+	}
+
+	@Test
+	public void searchShouldRespectSkippedIdsAndThreshold() {
+
+		Assertions.assertTrue(index.search(TrigramIndex.trigrams("Notebok"), 0.3, 100, id -> id == 2L).isEmpty());
+		Assertions.assertTrue(index.search(TrigramIndex.trigrams("zzzz"), 0.3, 100, id -> false).isEmpty());
+	}
+
+	@Test
+	public void searchShouldKeepFullScoresForCandidatesFoundBeforeCap() {
+
+		TrigramIndex.Builder builder = new TrigramIndex.Builder();
+		for (long id = 1; id <= 200; id++) {
+			builder.add(id, (id % 2 == 0 ? "Notebook Gamer " : "Notebook Pro ") + id);
+		}
+		TrigramIndex large = builder.build();
+		long[] query = TrigramIndex.trigrams("Notebook Gamer");
+
+		Map<Long, Double> full = large.search(query, 0.0, 1000, id -> false).stream()
+				.collect(Collectors.toMap(TrigramIndex.Match::getId, TrigramIndex.Match::getScore));
+		List<TrigramIndex.Match> capped = large.search(query, 0.0, 10, id -> false);
+
+		Assertions.assertEquals(10, capped.size());
+		for (TrigramIndex.Match match : capped) {
+			Assertions.assertEquals(full.get(match.getId()), match.getScore());
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package com.devsuperior.dscatalog.services.limits;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class AdaptiveLimiterTests {
+
+	private static final long MILLIS = 1_000_000L;
+
+	@Test
+	public void tryAcquireShouldRejectWhenLimitIsReached() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test", 2, 1, 10);
+
+		Assertions.assertTrue(limiter.tryAcquire());
+		Assertions.assertTrue(limiter.tryAcquire());
+		Assertions.assertFalse(limiter.tryAcquire());
+		Assertions.assertEquals(1, limiter.getRejected());
+
+		limiter.release(MILLIS, false);
+		Assertions.assertTrue(limiter.tryAcquire());
+	}
+
+	@Test
+	public void limitShouldGrowWithStableLatencyAndShrinkWhenLatencyRises() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test", 10, 2, 100);
+
+		saturate(limiter, 1 * MILLIS, 50);
+		int grown = limiter.getLimit();
+		Assertions.assertTrue(grown > 10, "limit " + grown);
+
+		// Poucas rodadas: com o tempo a media longa acompanha e a nova latencia vira a referencia
+		saturate(limiter, 20 * MILLIS, 3);
+		Assertions.assertTrue(limiter.getLimit() < grown, "limit " + limiter.getLimit() + " was " + grown);
+	}
+
+	@Test
+	public void resourceFailuresShouldBackOffDownToMinimum() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 5, 100);
+
+		for (int i = 0; i < 100; i++) {
+			limiter.tryAcquire();
+			limiter.release(MILLIS, true);
+		}
+
+		Assertions.assertEquals(5, limiter.getLimit());
+	}
+
+	@Test
+	public void limitShouldNotGrowWhenMostPermitsAreUnused() {
+		AdaptiveLimiter limiter = new AdaptiveLimiter("test", 20, 2, 100);
+
+		for (int i = 0; i < 500; i++) {
+			limiter.tryAcquire();
+			limiter.release(MILLIS, false);
+		}
+
+		Assertions.assertEquals(20, limiter.getLimit());
+	}
+
+	// Ocupa todas as vagas e libera todas com a mesma latencia, varias vezes
+	private static void saturate(AdaptiveLimiter limiter, long rttNanos, int rounds) {
+		for (int round = 0; round < rounds; round++) {
+			int acquired = 0;
+			while (limiter.tryAcquire()) {
+				acquired++;
+			}
+			for (int i = 0; i < acquired; i++) {
+				limiter.release(rttNanos, false);
+			}
+		}
+	}
+}
@@ -0,0 +1,59 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import com.devsuperior.dscatalog.dto.CategoryDTO;
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.services.CategoryService;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+
+// Sem @Transactional: o relay so enxerga o que ja fez commit. Os rollbacks dos outros testes deixam
+// lacunas nos ids; o timeout curto evita que o registro deste teste fique retido pelo padrao de 5s
+@SpringBootTest(properties = "catalog.outbox.gap-timeout-ms=1000")
+public class OutboxRelayIntegrationTest {
+
+	@Autowired
+	private CategoryService categoryService;
+
+	@Autowired
+	private OutboxService outboxService;
+
+	@Autowired
+	private ChangeBus bus;
+
+	@Test
+	public void writeShouldReachBusAfterCommit() throws Exception {
+		BlockingQueue<ChangeMessage> received = new LinkedBlockingQueue<>();
+		bus.subscribe(message -> {
+			if (OutboxEvent.CATEGORY.equals(message.getAggregate())) {
+				received.add(message);
+			}
+		});
+
+		CategoryDTO dto = new CategoryDTO();
+		dto.setName("Outbox");
+		CategoryDTO result = categoryService.insert(dto);
+		try {
+			ChangeMessage message = received.poll(5, TimeUnit.SECONDS);
+
+			Assertions.assertNotNull(message);
+			Assertions.assertEquals(result.getId(), message.getAggregateId());
+			Assertions.assertEquals(ChangeType.INSERTED, message.getType());
+			Assertions.assertEquals(outboxService.getNodeId(), message.getOrigin());
+		}
+		finally {
+			categoryService.delete(result.getId());
+		}
+
+		ChangeMessage deleted = received.poll(5, TimeUnit.SECONDS);
+		Assertions.assertNotNull(deleted);
+		Assertions.assertEquals(ChangeType.DELETED, deleted.getType());
+	}
+}
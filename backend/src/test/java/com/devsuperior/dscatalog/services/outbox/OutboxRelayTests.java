@@ -0,0 +1,98 @@
+package com.devsuperior.dscatalog.services.outbox;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentMatchers;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.entities.OutboxEvent;
+import com.devsuperior.dscatalog.repositories.OutboxEventRepository;
+import com.devsuperior.dscatalog.services.events.ChangeType;
+
+@ExtendWith(SpringExtension.class)
+public class OutboxRelayTests {
+
+	@InjectMocks
+	private OutboxRelay relay;
+
+	@Mock
+	private OutboxEventRepository repository;
+
+	@Mock
+	private OutboxService outboxService;
+
+	@Mock
+	private ChangeBus bus;
+
+	private List<Long> published;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		ReflectionTestUtils.setField(relay, "batchSize", 500);
+		ReflectionTestUtils.setField(relay, "gapTimeoutMs", 5000L);
+		published = new ArrayList<>();
+		Mockito.doAnswer(x -> published.add(((ChangeMessage) x.getArgument(0)).getSequence()))
+				.when(bus).publish(ArgumentMatchers.any());
+
+		Mockito.when(repository.findMaxId()).thenReturn(10L);
+		Mockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.anyLong(), ArgumentMatchers.any()))
+				.thenReturn(List.of());
+		relay.start();
+	}
+
+	@Test
+	public void pollShouldHoldEventsBehindGapUntilItCommits() {
+		Mockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+				.thenReturn(List.of(event(12L)));
+
+		relay.poll();
+		Assertions.assertTrue(published.isEmpty());
+
+		Mockito.when(repository.findAllById(List.of(11L))).thenReturn(List.of(event(11L)));
+		relay.poll();
+		Assertions.assertEquals(List.of(11L, 12L), published);
+	}
+
+	@Test
+	public void pollShouldRelayPastGapOnceItExpires() {
+		Mockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+				.thenReturn(List.of(event(12L)));
+		relay.poll();
+
+		ReflectionTestUtils.setField(relay, "gapTimeoutMs", -1L);
+		relay.poll();
+
+		Assertions.assertEquals(List.of(12L), published);
+	}
+
+	@Test
+	public void startShouldTreatMissingRecentIdsAsInFlight() {
+		Mockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(0L), ArgumentMatchers.any()))
+				.thenReturn(List.of(event(8L), event(10L)));
+		relay.start();
+
+		Mockito.when(repository.findByIdGreaterThanOrderByIdAsc(ArgumentMatchers.eq(10L), ArgumentMatchers.any()))
+				.thenReturn(List.of(event(11L)));
+		relay.poll();
+		Assertions.assertTrue(published.isEmpty());
+
+		Mockito.when(repository.findAllById(List.of(9L))).thenReturn(List.of(event(9L)));
+		relay.poll();
+		Assertions.assertEquals(List.of(9L, 11L), published);
+	}
+
+	private static OutboxEvent event(long id) {
+		OutboxEvent event = new OutboxEvent(OutboxEvent.PRODUCT, id, ChangeType.UPDATED, "node");
+		ReflectionTestUtils.setField(event, "id", id);
+		return event;
+	}
+}
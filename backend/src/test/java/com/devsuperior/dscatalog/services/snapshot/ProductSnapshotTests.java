@@ -0,0 +1,109 @@
+package com.devsuperior.dscatalog.services.snapshot;
+
+import java.text.Collator;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import com.devsuperior.dscatalog.dto.ProductDTO;
+
+public class ProductSnapshotTests {
+
+	private ProductSnapshot snapshot;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		Instant date = Instant.parse("2020-07-14T10:00:00.123456Z");
+		snapshot = new ProductSnapshot.Builder()
+				.add(new ProductRow(1L, "Smart TV", "TV", 2190.0, "tv.jpg", date))
+				.add(new ProductRow(2L, "Macbook Pro", "Notebook", 1250.0, "mac.jpg", date))
+				.add(new ProductRow(4L, "PC Gamer", "PC", 1200.0, "pc.jpg", date))
+				.build();
+	}
+
+	@Test
+	public void findAllPagedShouldSortAndFilterByPrice() {
+
+		Page<ProductDTO> result = snapshot.findAllPaged(1000.0, 2000.0, PageRequest.of(0, 10, Sort.by("name")));
+
+		Assertions.assertEquals(2, result.getTotalElements());
+		Assertions.assertEquals("Macbook Pro", result.getContent().get(0).getName());
+		Assertions.assertEquals("PC Gamer", result.getContent().get(1).getName());
+		Assertions.assertEquals(Instant.parse("2020-07-14T10:00:00.123456Z"), result.getContent().get(0).getDate());
+	}
+
+	@Test
+	public void applyShouldInsertOutOfOrderIdAndHideDeletedIds() {
+
+		ProductSnapshot next = snapshot.apply(List.of(new ProductRow(3L, "Book", "Book", 50.0, null, null)), List.of(1L));
+
+		Assertions.assertEquals(3, snapshot.liveCount());
+		Assertions.assertEquals(3, next.liveCount());
+		Assertions.assertEquals("Book", next.findById(3L).getName());
+		Assertions.assertNull(next.findById(1L));
+		Assertions.assertNotNull(snapshot.findById(1L));
+		Assertions.assertEquals(List.of(2L, 3L, 4L),
+				next.findAllPaged(null, null, PageRequest.of(0, 10)).map(ProductDTO::getId).getContent());
+	}
+
+	@Test
+	public void findAllPagedShouldReportLiveTotalWhenPageEndsEarly() {
+
+		Page<ProductDTO> result = snapshot.findAllPaged(null, null, PageRequest.of(0, 1, Sort.by("price")));
+
+		Assertions.assertEquals(3, result.getTotalElements());
+		Assertions.assertEquals(List.of(4L), result.map(ProductDTO::getId).getContent());
+	}
+
+	@Test
+	public void supportsShouldRejectIgnoreCaseAndNullHandling() {
+
+		Assertions.assertTrue(ProductSnapshot.supports(PageRequest.of(0, 10, Sort.by("name"))));
+		Assertions.assertFalse(ProductSnapshot.supports(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("name").ignoreCase()))));
+		Assertions.assertFalse(ProductSnapshot.supports(PageRequest.of(0, 10, Sort.by(Sort.Order.asc("price").nullsLast()))));
+	}
+
+	@Test
+	public void applyShouldPatchCachedOrderingWithBatchOfWrites() {
+
+		snapshot.findAllPaged(null, null, PageRequest.of(0, 10, Sort.by("price")));
+
+		ProductSnapshot next = snapshot.apply(List.of(
+				new ProductRow(3L, "Book", "Book", 50.0, null, null),
+				new ProductRow(1L, "Smart TV", "TV", 1225.0, "tv.jpg", null)), List.of(4L));
+
+		Page<ProductDTO> result = next.findAllPaged(null, null, PageRequest.of(0, 10, Sort.by("price")));
+
+		Assertions.assertEquals(3, result.getTotalElements());
+		Assertions.assertEquals(3L, result.getContent().get(0).getId());
+		Assertions.assertEquals(1L, result.getContent().get(1).getId());
+		Assertions.assertEquals(2L, result.getContent().get(2).getId());
+	}
+
+	@Test
+	public void nameOrderShouldFollowCollatorWhenGiven() {
+
+		ProductSnapshot.Builder natural = new ProductSnapshot.Builder();
+		ProductSnapshot.Builder collated = new ProductSnapshot.Builder(
+				Collator.getInstance(Locale.forLanguageTag("pt-BR"))::compare);
+		for (ProductSnapshot.Builder builder : List.of(natural, collated)) {
+			builder.add(new ProductRow(1L, "Zebra", null, 1.0, null, null))
+					.add(new ProductRow(2L, "arvore", null, 1.0, null, null))
+					.add(new ProductRow(3L, "\u00c1gua", null, 1.0, null, null));
+		}
+
+		// Ordem natural (H2 padrao): maiusculas antes de minusculas e acentos no fim
+		Page<ProductDTO> byCodePoint = natural.build().findAllPaged(null, null, PageRequest.of(0, 10, Sort.by("name")));
+		Assertions.assertEquals(List.of(1L, 2L, 3L), byCodePoint.map(ProductDTO::getId).getContent());
+
+		Page<ProductDTO> byCollator = collated.build().findAllPaged(null, null, PageRequest.of(0, 10, Sort.by("name")));
+		Assertions.assertEquals(List.of(3L, 2L, 1L), byCollator.map(ProductDTO::getId).getContent());
+	}
+}
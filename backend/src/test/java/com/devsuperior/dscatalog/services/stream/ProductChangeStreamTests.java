@@ -0,0 +1,76 @@
+package com.devsuperior.dscatalog.services.stream;
+
+import java.util.Set;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.services.events.ChangeType;
+import com.devsuperior.dscatalog.services.events.ProductChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class ProductChangeStreamTests {
+
+	private ProductChangeStream stream;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		stream = new ProductChangeStream();
+		ReflectionTestUtils.setField(stream, "objectMapper", new ObjectMapper());
+		ReflectionTestUtils.setField(stream, "bufferSize", 2);
+		ReflectionTestUtils.setField(stream, "timeoutMs", 0L);
+		ReflectionTestUtils.setField(stream, "sendTimeoutMs", 1000L);
+	}
+
+	@Test
+	public void slowSubscriberShouldBeDroppedWhenBufferIsFull() {
+		// Dispatcher que nunca executa: simula um cliente que parou de ler
+		Executor stalled = task -> { };
+		ReflectionTestUtils.setField(stream, "dispatcher", stalled);
+		stream.subscribe();
+
+		stream.onProductChanged(new ProductChangedEvent(1L, ChangeType.UPDATED, Set.of("price"), 10.0));
+		stream.onProductChanged(new ProductChangedEvent(2L, ChangeType.UPDATED, Set.of("price"), 20.0));
+		Assertions.assertEquals(1, stream.subscriberCount());
+
+		stream.onProductChanged(new ProductChangedEvent(3L, ChangeType.UPDATED, Set.of("price"), 30.0));
+		Assertions.assertEquals(0, stream.subscriberCount());
+		Assertions.assertEquals(1L, stream.droppedCount());
+	}
+
+	@Test
+	public void subscriberShouldKeepUpWhenDrained() {
+		Executor direct = Runnable::run;
+		ReflectionTestUtils.setField(stream, "dispatcher", direct);
+		stream.subscribe();
+
+		for (long i = 1; i <= 100; i++) {
+			stream.onProductChanged(new ProductChangedEvent(i, ChangeType.UPDATED, Set.of("price"), (double) i));
+		}
+		stream.heartbeat();
+
+		Assertions.assertEquals(1, stream.subscriberCount());
+		Assertions.assertEquals(0L, stream.droppedCount());
+	}
+
+	@Test
+	public void subscriberShouldBeDroppedWhenSendIsStalled() {
+		Executor stalled = task -> { };
+		ReflectionTestUtils.setField(stream, "dispatcher", stalled);
+		stream.subscribe();
+
+		// Simula um send bloqueado ha 2 segundos
+		Set<?> subscribers = (Set<?>) ReflectionTestUtils.getField(stream, "subscribers");
+		ReflectionTestUtils.setField(subscribers.iterator().next(), "sendingSince",
+				System.nanoTime() - TimeUnit.SECONDS.toNanos(2));
+
+		stream.heartbeat();
+
+		Assertions.assertEquals(0, stream.subscriberCount());
+		Assertions.assertEquals(1L, stream.droppedCount());
+	}
+}
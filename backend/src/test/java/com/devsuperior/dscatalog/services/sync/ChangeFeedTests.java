@@ -0,0 +1,85 @@
+package com.devsuperior.dscatalog.services.sync;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.devsuperior.dscatalog.dto.ChangesDTO;
+import com.devsuperior.dscatalog.entities.Tombstone;
+import com.devsuperior.dscatalog.services.exceptions.InvalidCursorException;
+
+public class ChangeFeedTests {
+
+	private Instant t1;
+	private Instant t2;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		t1 = Instant.parse("2024-01-10T10:00:00.000001Z");
+		t2 = Instant.parse("2024-01-10T10:00:00.000002Z");
+	}
+
+	@Test
+	public void mergeShouldBreakTimestampTiesByIdAcrossChangesAndTombstones() {
+
+		List<ChangeCursor> changed = List.of(new ChangeCursor(t1, 5L));
+		List<Tombstone> deleted = List.of(tombstone(t1, 3L));
+
+		ChangesDTO<Long> first = merge(ChangeCursor.START, 1, changed, deleted);
+
+		Assertions.assertEquals(List.of(3L), first.getDeleted());
+		Assertions.assertTrue(first.getChanged().isEmpty());
+		Assertions.assertEquals(t1 + "~3", first.getCursor());
+		Assertions.assertTrue(first.isHasMore());
+	}
+
+	@Test
+	public void mergeShouldStopAtLimitAndReturnCursorOfLastDeliveredItem() {
+
+		List<ChangeCursor> changed = List.of(new ChangeCursor(t1, 1L), new ChangeCursor(t2, 2L));
+		List<Tombstone> deleted = List.of(tombstone(t1, 7L));
+
+		ChangesDTO<Long> result = merge(ChangeCursor.START, 2, changed, deleted);
+
+		Assertions.assertEquals(List.of(1L), result.getChanged());
+		Assertions.assertEquals(List.of(7L), result.getDeleted());
+		Assertions.assertEquals(t1 + "~7", result.getCursor());
+		Assertions.assertTrue(result.isHasMore());
+	}
+
+	@Test
+	public void mergeShouldKeepStartCursorWhenNothingChanged() {
+
+		ChangeCursor start = new ChangeCursor(t2, 9L);
+
+		ChangesDTO<Long> result = merge(start, 10, List.of(), List.of());
+
+		Assertions.assertEquals(start.toString(), result.getCursor());
+		Assertions.assertFalse(result.isHasMore());
+	}
+
+	@Test
+	public void parseShouldAcceptInstantOrCursorAndRejectGarbage() {
+
+		Assertions.assertEquals(new ChangeCursor(t1, 0L).toString(), ChangeCursor.parse(t1.toString()).toString());
+		Assertions.assertEquals(t1 + "~42", ChangeCursor.parse(t1 + "~42").toString());
+		Assertions.assertThrows(InvalidCursorException.class, () -> {
+			ChangeCursor.parse("yesterday");
+		});
+	}
+
+	private static ChangesDTO<Long> merge(ChangeCursor start, int limit, List<ChangeCursor> changed,
+			List<Tombstone> deleted) {
+		return ChangeFeed.merge(start, limit, changed, x -> x, ChangeCursor::getId, deleted);
+	}
+
+	private static Tombstone tombstone(Instant deletedAt, long id) {
+		Tombstone tombstone = new Tombstone(Tombstone.PRODUCT, id);
+		ReflectionTestUtils.setField(tombstone, "deletedAt", deletedAt);
+		return tombstone;
+	}
+}
@@ -0,0 +1,32 @@
+package com.devsuperior.dscatalog.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+// Registra o SQL gerado pelo Hibernate na thread atual (threads de fundo nao entram na conta)
+public class SqlStatementCounter implements StatementInspector {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+	@Override
+	public String inspect(String sql) {
+		STATEMENTS.get().add(sql);
+		return sql;
+	}
+
+	public static void reset() {
+		STATEMENTS.get().clear();
+	}
+
+	public static List<String> statements() {
+		return new ArrayList<>(STATEMENTS.get());
+	}
+
+	public static long count(String fragment) {
+		return STATEMENTS.get().stream().filter(x -> x.toLowerCase().contains(fragment)).count();
+	}
+}